@@ -0,0 +1,155 @@
+package com.parmeet.unittest.hotelbookingapp.analytics;
+
+import com.parmeet.unittest.hotelbookingapp.service.RateTable;
+import com.parmeet.unittest.hotelbookingapp.util.Currency;
+import com.parmeet.unittest.hotelbookingapp.util.Money;
+
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Occupancy, revenue and length-of-stay reports over {@link BookingColumns}. Each report
+ * is a fork/join scan: the columns are split into ranges, every range is reduced into
+ * its own primitive accumulator, and the accumulators are merged pairwise.
+ */
+public class BookingAnalytics {
+
+	private static final int LEAF_SIZE = 1 << 16;
+
+	private final BookingColumns columns;
+	private final ForkJoinPool pool;
+
+	public BookingAnalytics(BookingColumns columns) {
+		this(columns, ForkJoinPool.commonPool());
+	}
+
+	public BookingAnalytics(BookingColumns columns, ForkJoinPool pool) {
+		this.columns = columns;
+		this.pool = pool;
+	}
+
+	/**
+	 * @return the number of rooms occupied on each night of {@code [windowFrom, windowTo)}
+	 */
+	public int[] occupancyPerNight(LocalDate windowFrom, LocalDate windowTo) {
+		int firstDay = Math.toIntExact(windowFrom.toEpochDay());
+		int nights = Math.toIntExact(windowTo.toEpochDay() - firstDay);
+		int[] from = columns.epochDayFrom();
+		int[] to = columns.epochDayTo();
+		// each range marks check-in and check-out in a difference array, a prefix sum resolves them
+		int[] occupancy = scan((start, end) -> {
+			int[] changes = new int[nights + 1];
+			for (int i = start; i < end; i++) {
+				int checkIn = Math.max(from[i] - firstDay, 0);
+				int checkOut = Math.min(to[i] - firstDay, nights);
+				if (checkIn < checkOut) {
+					changes[checkIn]++;
+					changes[checkOut]--;
+				}
+			}
+			return changes;
+		}, BookingAnalytics::addInto);
+		int occupied = 0;
+		int[] result = new int[nights];
+		for (int night = 0; night < nights; night++) {
+			occupied += occupancy[night];
+			result[night] = occupied;
+		}
+		return result;
+	}
+
+	/**
+	 * Prices every stay with {@code rateTable} and sums the result per room.
+	 *
+	 * @return revenue in US cents, indexed like {@link BookingColumns#getRoomId(int)}
+	 */
+	public long[] revenuePerRoomMinor(RateTable rateTable) {
+		int rooms = columns.getRoomCount();
+		int[] from = columns.epochDayFrom();
+		int[] to = columns.epochDayTo();
+		int[] guests = columns.guestCount();
+		int[] room = columns.roomIndex();
+		return scan((start, end) -> {
+			long[] revenue = new long[rooms];
+			for (int i = start; i < end; i++) {
+				revenue[room[i]] += Money.toMinorUnits(rateTable.total(from[i], to[i]) * guests[i], Currency.USD);
+			}
+			return revenue;
+		}, BookingAnalytics::addInto);
+	}
+
+	public Money totalRevenue(RateTable rateTable) {
+		return Money.ofMinor(Money.sum(revenuePerRoomMinor(rateTable)), Currency.USD);
+	}
+
+	/**
+	 * @return the mean number of nights per stay, or 0 if there are no stays
+	 */
+	public double averageLengthOfStay() {
+		int[] from = columns.epochDayFrom();
+		int[] to = columns.epochDayTo();
+		long nights = scan((start, end) -> {
+			long[] sum = new long[1];
+			for (int i = start; i < end; i++) {
+				sum[0] += to[i] - from[i];
+			}
+			return sum;
+		}, BookingAnalytics::addInto)[0];
+		return columns.size() == 0 ? 0 : (double) nights / columns.size();
+	}
+
+	private <R> R scan(RangeReducer<R> reducer, BinaryOperator<R> merger) {
+		return pool.invoke(new ScanTask<>(reducer, merger, 0, columns.size()));
+	}
+
+	private static int[] addInto(int[] target, int[] source) {
+		for (int i = 0; i < target.length; i++) {
+			target[i] += source[i];
+		}
+		return target;
+	}
+
+	private static long[] addInto(long[] target, long[] source) {
+		for (int i = 0; i < target.length; i++) {
+			target[i] += source[i];
+		}
+		return target;
+	}
+
+	private interface RangeReducer<R> {
+		R reduce(int start, int end);
+	}
+
+	private static final class ScanTask<R> extends RecursiveTask<R> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final RangeReducer<R> reducer;
+		private final BinaryOperator<R> merger;
+		private final int start;
+		private final int end;
+
+		private ScanTask(RangeReducer<R> reducer, BinaryOperator<R> merger, int start, int end) {
+			this.reducer = reducer;
+			this.merger = merger;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected R compute() {
+			if (end - start <= LEAF_SIZE) {
+				return reducer.reduce(start, end);
+			}
+			int middle = (start + end) >>> 1;
+			ScanTask<R> left = new ScanTask<>(reducer, merger, start, middle);
+			left.fork();
+			R right = new ScanTask<>(reducer, merger, middle, end).compute();
+			return merger.apply(left.join(), right);
+		}
+
+	}
+
+}
@@ -0,0 +1,142 @@
+package com.parmeet.unittest.hotelbookingapp.analytics;
+
+import com.parmeet.unittest.hotelbookingapp.dao.BookingStore;
+import com.parmeet.unittest.hotelbookingapp.dao.MappedBookingDAO;
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-wise copy of dated bookings: one primitive array per field and rooms as dense
+ * indexes, so scans read contiguous memory and never touch booking objects. Undated
+ * bookings have no stay to report on and are left out. A group booking is one row per
+ * room, with its guests spread evenly over the rooms.
+ */
+public class BookingColumns {
+
+	private final int size;
+	private final int[] epochDayFrom;
+	private final int[] epochDayTo;
+	private final int[] guestCount;
+	private final int[] roomIndex;
+	private final String[] roomIds;
+
+	private BookingColumns(Builder builder) {
+		this.size = builder.size;
+		this.epochDayFrom = Arrays.copyOf(builder.epochDayFrom, size);
+		this.epochDayTo = Arrays.copyOf(builder.epochDayTo, size);
+		this.guestCount = Arrays.copyOf(builder.guestCount, size);
+		this.roomIndex = Arrays.copyOf(builder.roomIndex, size);
+		this.roomIds = builder.roomIds.toArray(new String[0]);
+	}
+
+	public static BookingColumns of(BookingStore bookingDAO) {
+		Builder builder = new Builder(bookingDAO.size());
+		if (bookingDAO instanceof MappedBookingDAO) {
+			((MappedBookingDAO) bookingDAO).forEach(record -> builder.add(record.getEpochDayFrom(),
+					record.getEpochDayTo(), record.getGuestCount(), record.getRoomId()));
+		} else {
+			bookingDAO.forEach((id, bookingRequest) -> builder.add(bookingRequest));
+		}
+		return builder.build();
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getRoomCount() {
+		return roomIds.length;
+	}
+
+	public String getRoomId(int roomIndex) {
+		return roomIds[roomIndex];
+	}
+
+	int[] epochDayFrom() {
+		return epochDayFrom;
+	}
+
+	int[] epochDayTo() {
+		return epochDayTo;
+	}
+
+	int[] guestCount() {
+		return guestCount;
+	}
+
+	int[] roomIndex() {
+		return roomIndex;
+	}
+
+	public static class Builder {
+
+		private static final int NO_DATE = Integer.MIN_VALUE;
+
+		private final Map<String, Integer> roomIndexes = new HashMap<>();
+		private final List<String> roomIds = new ArrayList<>();
+		private int size;
+		private int[] epochDayFrom;
+		private int[] epochDayTo;
+		private int[] guestCount;
+		private int[] roomIndex;
+
+		public Builder(int expectedSize) {
+			int capacity = Math.max(16, expectedSize);
+			this.epochDayFrom = new int[capacity];
+			this.epochDayTo = new int[capacity];
+			this.guestCount = new int[capacity];
+			this.roomIndex = new int[capacity];
+		}
+
+		public Builder add(BookingRequest bookingRequest) {
+			if (bookingRequest.getDateFrom() == null || bookingRequest.getDateTo() == null) {
+				return this;
+			}
+			int from = Math.toIntExact(bookingRequest.getDateFrom().toEpochDay());
+			int to = Math.toIntExact(bookingRequest.getDateTo().toEpochDay());
+			List<String> bookedRoomIds = bookingRequest.getRoomIds();
+			int rooms = bookedRoomIds.size();
+			if (rooms <= 1) {
+				return add(from, to, bookingRequest.getGuestCount(), bookingRequest.getRoomId());
+			}
+			int guests = bookingRequest.getGuestCount();
+			for (int i = 0; i < rooms; i++) {
+				add(from, to, guests / rooms + (i < guests % rooms ? 1 : 0), bookedRoomIds.get(i));
+			}
+			return this;
+		}
+
+		public Builder add(int epochDayFrom, int epochDayTo, int guestCount, String roomId) {
+			if (epochDayFrom == NO_DATE || epochDayTo == NO_DATE) {
+				return this;
+			}
+			if (size == this.epochDayFrom.length) {
+				int capacity = size * 2;
+				this.epochDayFrom = Arrays.copyOf(this.epochDayFrom, capacity);
+				this.epochDayTo = Arrays.copyOf(this.epochDayTo, capacity);
+				this.guestCount = Arrays.copyOf(this.guestCount, capacity);
+				this.roomIndex = Arrays.copyOf(this.roomIndex, capacity);
+			}
+			this.epochDayFrom[size] = epochDayFrom;
+			this.epochDayTo[size] = epochDayTo;
+			this.guestCount[size] = guestCount;
+			this.roomIndex[size] = roomIndexes.computeIfAbsent(roomId, id -> {
+				roomIds.add(id);
+				return roomIds.size() - 1;
+			});
+			size++;
+			return this;
+		}
+
+		public BookingColumns build() {
+			return new BookingColumns(this);
+		}
+
+	}
+
+}
@@ -3,26 +3,72 @@ package com.parmeet.unittest.hotelbookingapp.dao;
 
 import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
-public class BookingDAO {
+public class BookingDAO implements BookingStore {
 
-	private final Map<String, BookingRequest> bookings = new HashMap<>();
+	private final Map<String, BookingRequest> bookings = new ConcurrentHashMap<>();
+	private final BookingIdGenerator idGenerator;
+	private final BookingJournal journal;
 
+	public BookingDAO() {
+		this(new BookingIdGenerator());
+	}
+
+	public BookingDAO(BookingIdGenerator idGenerator) {
+		this(idGenerator, null);
+	}
+
+	public BookingDAO(BookingJournal journal) {
+		this(new BookingIdGenerator(), journal);
+	}
+
+	public BookingDAO(BookingIdGenerator idGenerator, BookingJournal journal) {
+		this.idGenerator = idGenerator;
+		this.journal = journal;
+		if (journal != null) {
+			journal.recover(bookings);
+			bookings.keySet().forEach(id -> idGenerator.advancePast(BookingIdGenerator.parse(id)));
+		}
+	}
+
+	@Override
 	public String save(BookingRequest bookingRequest) {
-		String id = UUID.randomUUID().toString();
+		String id = idGenerator.nextIdString();
 		bookings.put(id, bookingRequest);
+		if (journal != null) {
+			try {
+				journal.appendSave(id, bookingRequest);
+			} catch (RuntimeException e) {
+				bookings.remove(id);
+				throw e;
+			}
+		}
 		return id;
 	}
 	
+	@Override
 	public BookingRequest get(String id) {
 		return bookings.get(id);
 	}
-	
+
+	@Override
 	public void delete(String bookingId) {
-		bookings.remove(bookingId);
+		if (bookings.remove(bookingId) != null && journal != null) {
+			journal.appendDelete(bookingId);
+		}
+	}
+
+	@Override
+	public int size() {
+		return bookings.size();
+	}
+
+	@Override
+	public void forEach(BiConsumer<String, BookingRequest> action) {
+		bookings.forEach(action);
 	}
 
 }
@@ -0,0 +1,51 @@
+package com.parmeet.unittest.hotelbookingapp.dao;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic booking ids without {@code SecureRandom}, taken from one shared atomic
+ * counter. The counter starts at the start-up time in the high bits, which keeps ids
+ * unique across restarts.
+ * <p>
+ * Ids are not reserved in per-thread blocks: with one virtual thread per booking every
+ * thread would reserve a block and use one id of it.
+ */
+public class BookingIdGenerator {
+
+	private static final int TIMESTAMP_SHIFT = 20;
+
+	private final AtomicLong nextId;
+
+	public BookingIdGenerator() {
+		this(System.currentTimeMillis() << TIMESTAMP_SHIFT);
+	}
+
+	public BookingIdGenerator(long firstId) {
+		this.nextId = new AtomicLong(firstId);
+	}
+
+	public long nextId() {
+		return nextId.getAndIncrement();
+	}
+
+	/**
+	 * Makes sure ids handed out from now on are greater than {@code id}, e.g. after
+	 * recovering stored bookings.
+	 */
+	public void advancePast(long id) {
+		nextId.accumulateAndGet(id + 1, Math::max);
+	}
+
+	public String nextIdString() {
+		return toString(nextId());
+	}
+
+	public static String toString(long id) {
+		return Long.toString(id, Character.MAX_RADIX);
+	}
+
+	public static long parse(String id) {
+		return Long.parseLong(id, Character.MAX_RADIX);
+	}
+
+}
@@ -0,0 +1,375 @@
+package com.parmeet.unittest.hotelbookingapp.dao;
+
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary journal of booking saves and deletes. Appends only copy the
+ * record into a buffer; a background thread writes and fsyncs the buffer every
+ * flush interval, so one fsync commits every record appended since the last one.
+ * With {@code syncCommit} the appending thread also waits for that fsync, and
+ * concurrent waiters share it.
+ * <p>
+ * When the journal grows past the compaction threshold the live bookings are
+ * written to a snapshot file and the journal is truncated, so recovery reads at
+ * most one snapshot plus one threshold's worth of journal.
+ * <p>
+ * If a background flush fails, appends throw until a later flush succeeds, so
+ * callers never keep accepting bookings that cannot be made durable. The failure
+ * is available from {@link #getFailure()}.
+ */
+public class BookingJournal implements Closeable {
+
+	private static final String JOURNAL_FILE = "bookings.journal";
+	private static final String SNAPSHOT_FILE = "bookings.snapshot";
+	private static final byte SAVE = 1;
+	private static final byte DELETE = 2;
+	private static final int HEADER_BYTES = 8;
+	private static final long NO_DATE = Long.MIN_VALUE;
+
+	private final Path directory;
+	private final FileChannel channel;
+	private final boolean syncCommit;
+	private final long compactionThresholdBytes;
+	private final ScheduledExecutorService flusher;
+
+	private final Object appendLock = new Object();
+	private final Object flushLock = new Object();
+	private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+	private long appendedSequence;
+	private volatile long durableSequence;
+	private volatile IOException failure;
+	private volatile Map<String, BookingRequest> liveBookings;
+
+	public BookingJournal(Path directory) {
+		this(directory, 2, false, 64L << 20);
+	}
+
+	public BookingJournal(Path directory, long flushIntervalMillis, boolean syncCommit, long compactionThresholdBytes) {
+		this.directory = directory;
+		this.syncCommit = syncCommit;
+		this.compactionThresholdBytes = compactionThresholdBytes;
+		try {
+			Files.createDirectories(directory);
+			this.channel = FileChannel.open(directory.resolve(JOURNAL_FILE),
+					StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			this.channel.position(this.channel.size());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "booking-journal-flusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		flusher.scheduleWithFixedDelay(this::flushAndCompact, flushIntervalMillis, flushIntervalMillis,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Loads the snapshot and replays the journal into {@code bookings}, which is then
+	 * used as the source for later snapshots. A torn record at the journal tail is
+	 * discarded.
+	 */
+	public void recover(Map<String, BookingRequest> bookings) {
+		try {
+			Path snapshot = directory.resolve(SNAPSHOT_FILE);
+			if (Files.exists(snapshot)) {
+				try (FileChannel snapshotChannel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+					replay(snapshotChannel, bookings);
+				}
+			}
+			synchronized (flushLock) {
+				long validBytes = replay(channel, bookings);
+				channel.truncate(validBytes);
+				channel.position(validBytes);
+				liveBookings = bookings;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @return the error of the last flush if it failed, or {@code null} while the
+	 * journal is healthy
+	 */
+	public IOException getFailure() {
+		return failure;
+	}
+
+	public boolean isHealthy() {
+		return failure == null;
+	}
+
+	public void appendSave(String id, BookingRequest bookingRequest) {
+		commit(encodeSave(id, bookingRequest));
+	}
+
+	public void appendDelete(String id) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(DELETE);
+			out.writeUTF(id);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		commit(bytes.toByteArray());
+	}
+
+	/**
+	 * Writes and fsyncs everything appended so far.
+	 */
+	public void flush() {
+		synchronized (flushLock) {
+			ByteArrayOutputStream batch;
+			long sequence;
+			synchronized (appendLock) {
+				batch = pending;
+				sequence = appendedSequence;
+				pending = new ByteArrayOutputStream();
+			}
+			if (batch.size() > 0) {
+				try {
+					write(batch);
+				} catch (IOException e) {
+					synchronized (appendLock) {
+						ByteArrayOutputStream retry = new ByteArrayOutputStream(batch.size() + pending.size());
+						retry.write(batch.toByteArray(), 0, batch.size());
+						retry.write(pending.toByteArray(), 0, pending.size());
+						pending = retry;
+					}
+					failure = e;
+					throw new UncheckedIOException(e);
+				}
+			}
+			durableSequence = sequence;
+			failure = null;
+		}
+	}
+
+	/**
+	 * Replaces the snapshot with the current live bookings and truncates the journal.
+	 */
+	public void compact() {
+		synchronized (flushLock) {
+			flush();
+			if (liveBookings == null) {
+				return;
+			}
+			try {
+				Path tmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+				try (FileChannel snapshot = FileChannel.open(tmp, StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+					ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+					for (Map.Entry<String, BookingRequest> entry : liveBookings.entrySet()) {
+						writeRecord(bytes, encodeSave(entry.getKey(), entry.getValue()));
+					}
+					ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+					while (buffer.hasRemaining()) {
+						snapshot.write(buffer);
+					}
+					snapshot.force(true);
+				}
+				Files.move(tmp, directory.resolve(SNAPSHOT_FILE),
+						StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				channel.truncate(0);
+				channel.position(0);
+				channel.force(true);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		flusher.shutdown();
+		try {
+			flusher.awaitTermination(1, TimeUnit.SECONDS);
+			flush();
+			channel.close();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void commit(byte[] record) {
+		IOException lastFailure = failure;
+		if (lastFailure != null) {
+			throw new UncheckedIOException("Journal flush failed", lastFailure);
+		}
+		long sequence;
+		synchronized (appendLock) {
+			writeRecord(pending, record);
+			sequence = ++appendedSequence;
+		}
+		if (syncCommit && durableSequence < sequence) {
+			synchronized (flushLock) {
+				if (durableSequence < sequence) {
+					flush();
+				}
+			}
+		}
+	}
+
+	private void write(ByteArrayOutputStream batch) throws IOException {
+		long start = channel.position();
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		} catch (IOException e) {
+			channel.truncate(start);
+			channel.position(start);
+			throw e;
+		}
+	}
+
+	/**
+	 * Runs on the flusher thread. A failure is recorded rather than thrown, which keeps
+	 * the flusher alive to retry the same pending buffer in the next round.
+	 */
+	private void flushAndCompact() {
+		try {
+			flush();
+			if (liveBookings != null && channel.size() > compactionThresholdBytes) {
+				compact();
+			}
+		} catch (UncheckedIOException e) {
+			failure = e.getCause();
+		} catch (IOException e) {
+			failure = e;
+		} catch (RuntimeException e) {
+			failure = new IOException(e);
+		}
+	}
+
+	private static void writeRecord(ByteArrayOutputStream out, byte[] record) {
+		CRC32 crc = new CRC32();
+		crc.update(record);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+				.putInt(record.length)
+				.putInt((int) crc.getValue());
+		out.write(header.array(), 0, HEADER_BYTES);
+		out.write(record, 0, record.length);
+	}
+
+	private static long replay(FileChannel source, Map<String, BookingRequest> bookings) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		long position = 0;
+		long size = source.size();
+		while (position + HEADER_BYTES <= size) {
+			header.clear();
+			source.read(header, position);
+			header.flip();
+			int length = header.getInt();
+			int checksum = header.getInt();
+			if (length <= 0 || position + HEADER_BYTES + length > size) {
+				break;
+			}
+			ByteBuffer record = ByteBuffer.allocate(length);
+			source.read(record, position + HEADER_BYTES);
+			CRC32 crc = new CRC32();
+			crc.update(record.array());
+			if ((int) crc.getValue() != checksum) {
+				break;
+			}
+			apply(record.array(), bookings);
+			position += HEADER_BYTES + length;
+		}
+		return position;
+	}
+
+	private static void apply(byte[] record, Map<String, BookingRequest> bookings) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+		byte type = in.readByte();
+		String id = in.readUTF();
+		if (type == DELETE) {
+			bookings.remove(id);
+			return;
+		}
+		String userId = in.readBoolean() ? in.readUTF() : null;
+		LocalDate dateFrom = toDate(in.readLong());
+		LocalDate dateTo = toDate(in.readLong());
+		int guestCount = in.readInt();
+		boolean prepaid = in.readBoolean();
+		String roomId = in.readBoolean() ? in.readUTF() : null;
+		BookingRequest bookingRequest = new BookingRequest(userId, dateFrom, dateTo, guestCount, prepaid);
+		bookingRequest.setRoomId(roomId);
+		// group bookings append their room list; records written before groups end here
+		if (in.available() > 0) {
+			List<String> roomIds = new ArrayList<>();
+			for (int i = in.readUnsignedShort(); i > 0; i--) {
+				roomIds.add(in.readUTF());
+			}
+			bookingRequest.setRoomIds(roomIds);
+		}
+		bookings.put(id, bookingRequest);
+	}
+
+	private static byte[] encodeSave(String id, BookingRequest bookingRequest) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(SAVE);
+			out.writeUTF(id);
+			writeNullable(out, bookingRequest.getUserId());
+			out.writeLong(toEpochDay(bookingRequest.getDateFrom()));
+			out.writeLong(toEpochDay(bookingRequest.getDateTo()));
+			out.writeInt(bookingRequest.getGuestCount());
+			out.writeBoolean(bookingRequest.isPrepaid());
+			writeNullable(out, bookingRequest.getRoomId());
+			if (bookingRequest.isGroupBooking()) {
+				List<String> roomIds = bookingRequest.getRoomIds();
+				out.writeShort(roomIds.size());
+				for (String roomId : roomIds) {
+					out.writeUTF(roomId);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static void writeNullable(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static long toEpochDay(LocalDate date) {
+		return date == null ? NO_DATE : date.toEpochDay();
+	}
+
+	private static LocalDate toDate(long epochDay) {
+		return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+	}
+
+}
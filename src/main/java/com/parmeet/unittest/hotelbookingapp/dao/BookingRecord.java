@@ -0,0 +1,84 @@
+package com.parmeet.unittest.hotelbookingapp.dao;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight view over one fixed-width booking record of a {@link MappedBookingDAO}.
+ * Point it at a slot with {@link MappedBookingDAO#read(int, BookingRecord)} and reuse
+ * it across reads; accessors decode straight from the buffer without allocating.
+ */
+public class BookingRecord {
+
+	static final int BYTES = 24;
+	static final int DATE_FROM = 0;
+	static final int DATE_TO = 4;
+	static final int USER = 8;
+	static final int ROOM = 12;
+	static final int META = 16;
+	static final int GENERATION = 20;
+	static final int MAX_GUESTS = 0xFFFF;
+	static final int GUESTS_MASK = 0xFFFF;
+	static final int PREPAID = 1 << 16;
+	static final int LIVE = 1 << 17;
+	static final int NO_DATE = Integer.MIN_VALUE;
+
+	private ByteBuffer buffer;
+	private StringDictionary userIds;
+	private StringDictionary roomIds;
+	private int offset;
+	private int meta;
+	private int slot;
+
+	void wrap(ByteBuffer buffer, StringDictionary userIds, StringDictionary roomIds, int slot, int meta) {
+		this.buffer = buffer;
+		this.userIds = userIds;
+		this.roomIds = roomIds;
+		this.slot = slot;
+		this.offset = slot * BYTES;
+		this.meta = meta;
+	}
+
+	public int getSlot() {
+		return slot;
+	}
+
+	/**
+	 * @return how often the slot has been reused, part of the booking id
+	 */
+	public int getGeneration() {
+		return buffer.getInt(offset + GENERATION);
+	}
+
+	public int getEpochDayFrom() {
+		return buffer.getInt(offset + DATE_FROM);
+	}
+
+	public int getEpochDayTo() {
+		return buffer.getInt(offset + DATE_TO);
+	}
+
+	public int getGuestCount() {
+		return meta & GUESTS_MASK;
+	}
+
+	public boolean isPrepaid() {
+		return (meta & PREPAID) != 0;
+	}
+
+	public int getUserCode() {
+		return buffer.getInt(offset + USER);
+	}
+
+	public int getRoomCode() {
+		return buffer.getInt(offset + ROOM);
+	}
+
+	public String getUserId() {
+		return userIds.decode(getUserCode());
+	}
+
+	public String getRoomId() {
+		return roomIds.decode(getRoomCode());
+	}
+
+}
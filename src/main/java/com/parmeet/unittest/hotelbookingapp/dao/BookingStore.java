@@ -0,0 +1,55 @@
+package com.parmeet.unittest.hotelbookingapp.dao;
+
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Where bookings are kept: {@link BookingDAO} on the heap, optionally journaled, or
+ * {@link MappedBookingDAO} in fixed-width records off the heap.
+ */
+public interface BookingStore {
+
+	/**
+	 * @return the id of the saved booking
+	 */
+	String save(BookingRequest bookingRequest);
+
+	/**
+	 * Saves all bookings or none: if one save fails, the bookings already saved by this
+	 * call are deleted again before the exception is rethrown.
+	 */
+	default List<String> saveAll(List<BookingRequest> bookingRequests) {
+		List<String> ids = new ArrayList<>(bookingRequests.size());
+		try {
+			for (BookingRequest bookingRequest : bookingRequests) {
+				ids.add(save(bookingRequest));
+			}
+		} catch (RuntimeException e) {
+			ids.forEach(this::delete);
+			throw e;
+		}
+		return ids;
+	}
+
+	/**
+	 * @return the booking, or {@code null} if there is none with this id
+	 */
+	BookingRequest get(String id);
+
+	/**
+	 * Deletes the booking; does nothing if there is none with this id.
+	 */
+	void delete(String bookingId);
+
+	int size();
+
+	/**
+	 * Visits every stored booking with its id. Bookings saved or deleted concurrently
+	 * may or may not be visited.
+	 */
+	void forEach(BiConsumer<String, BookingRequest> action);
+
+}
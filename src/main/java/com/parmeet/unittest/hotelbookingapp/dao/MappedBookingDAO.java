@@ -0,0 +1,223 @@
+package com.parmeet.unittest.hotelbookingapp.dao;
+
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * {@link BookingStore} that keeps bookings outside the heap as fixed-width records:
+ * epoch-day ints for the dates, dictionary codes for user and room ids, and the guest
+ * count (at most {@value BookingRecord#MAX_GUESTS}) and prepaid flag packed into one meta int. Records live in a direct buffer or,
+ * for datasets larger than memory, in a memory-mapped scratch file. The file is not
+ * reopened on restart; use {@link BookingJournal} for durability. A record holds one
+ * room id, so group bookings are rejected.
+ * <p>
+ * Deleted slots are reused. A booking id is its slot plus the slot's generation, which
+ * a reuse increments, so the id of a deleted booking never finds the booking that took
+ * its slot. {@link #get(String)} still materializes a
+ * {@link BookingRequest}; bulk readers should use {@link #read(int, BookingRecord)}
+ * or {@link #forEach(Consumer)}, which do not allocate.
+ */
+public class MappedBookingDAO implements BookingStore {
+
+	private static final VarHandle META = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+	private final ByteBuffer records;
+	private final int capacity;
+	private final AtomicInteger nextSlot = new AtomicInteger();
+	private final AtomicInteger liveCount = new AtomicInteger();
+	private final int[] freeSlots;
+	private int freeSlotCount;
+	private final StringDictionary userIds = new StringDictionary();
+	private final StringDictionary roomIds = new StringDictionary();
+
+	public MappedBookingDAO(int capacity) {
+		this.capacity = capacity;
+		this.freeSlots = new int[capacity];
+		this.records = ByteBuffer.allocateDirect(Math.multiplyExact(capacity, BookingRecord.BYTES));
+	}
+
+	public MappedBookingDAO(Path file, int capacity) {
+		this.capacity = capacity;
+		this.freeSlots = new int[capacity];
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			this.records = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+					Math.multiplyExact(capacity, BookingRecord.BYTES));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public String save(BookingRequest bookingRequest) {
+		if (bookingRequest.isGroupBooking()) {
+			throw new IllegalArgumentException("Fixed-width records hold one room, not a group booking");
+		}
+		int guestCount = bookingRequest.getGuestCount();
+		if (guestCount < 0 || guestCount > BookingRecord.MAX_GUESTS) {
+			throw new IllegalArgumentException("Guest count does not fit a record: " + guestCount);
+		}
+		int slot = takeSlot();
+		int offset = slot * BookingRecord.BYTES;
+		int generation = records.getInt(offset + BookingRecord.GENERATION);
+		records.putInt(offset + BookingRecord.DATE_FROM, toEpochDay(bookingRequest.getDateFrom()));
+		records.putInt(offset + BookingRecord.DATE_TO, toEpochDay(bookingRequest.getDateTo()));
+		records.putInt(offset + BookingRecord.USER, userIds.encode(bookingRequest.getUserId()));
+		records.putInt(offset + BookingRecord.ROOM, roomIds.encode(bookingRequest.getRoomId()));
+		int meta = guestCount
+				| (bookingRequest.isPrepaid() ? BookingRecord.PREPAID : 0)
+				| BookingRecord.LIVE;
+		META.setRelease(records, offset + BookingRecord.META, meta);
+		liveCount.incrementAndGet();
+		return idOf(slot, generation);
+	}
+
+	@Override
+	public BookingRequest get(String id) {
+		BookingRecord record = new BookingRecord();
+		return read(id, record) ? toRequest(record) : null;
+	}
+
+	@Override
+	public void delete(String bookingId) {
+		BookingRecord record = new BookingRecord();
+		if (!read(bookingId, record)) {
+			return;
+		}
+		int slot = record.getSlot();
+		int offset = slot * BookingRecord.BYTES;
+		int meta;
+		do {
+			meta = (int) META.getAcquire(records, offset + BookingRecord.META);
+			if ((meta & BookingRecord.LIVE) == 0) {
+				return;
+			}
+		} while (!META.compareAndSet(records, offset + BookingRecord.META, meta, meta & ~BookingRecord.LIVE));
+		records.putInt(offset + BookingRecord.GENERATION, (record.getGeneration() + 1) & Integer.MAX_VALUE);
+		liveCount.decrementAndGet();
+		synchronized (freeSlots) {
+			freeSlots[freeSlotCount++] = slot;
+		}
+	}
+
+	@Override
+	public int size() {
+		return liveCount.get();
+	}
+
+	/**
+	 * Materializes every live booking; prefer {@link #forEach(Consumer)} for scans.
+	 */
+	@Override
+	public void forEach(BiConsumer<String, BookingRequest> action) {
+		forEach(record -> action.accept(idOf(record.getSlot(), record.getGeneration()), toRequest(record)));
+	}
+
+	/**
+	 * Points {@code record} at the given slot.
+	 *
+	 * @return false if the slot holds no live booking
+	 */
+	public boolean read(int slot, BookingRecord record) {
+		if (slot < 0 || slot >= Math.min(nextSlot.get(), capacity)) {
+			return false;
+		}
+		int meta = (int) META.getAcquire(records, slot * BookingRecord.BYTES + BookingRecord.META);
+		if ((meta & BookingRecord.LIVE) == 0) {
+			return false;
+		}
+		record.wrap(records, userIds, roomIds, slot, meta);
+		return true;
+	}
+
+	/**
+	 * Visits every live booking through one reused flyweight.
+	 */
+	public void forEach(Consumer<BookingRecord> action) {
+		BookingRecord record = new BookingRecord();
+		int slots = getSlotCount();
+		for (int slot = 0; slot < slots; slot++) {
+			if (read(slot, record)) {
+				action.accept(record);
+			}
+		}
+	}
+
+	public int getSlotCount() {
+		return Math.min(nextSlot.get(), capacity);
+	}
+
+	public StringDictionary getUserIds() {
+		return userIds;
+	}
+
+	public StringDictionary getRoomIds() {
+		return roomIds;
+	}
+
+	private static BookingRequest toRequest(BookingRecord record) {
+		BookingRequest bookingRequest = new BookingRequest(record.getUserId(), toDate(record.getEpochDayFrom()),
+				toDate(record.getEpochDayTo()), record.getGuestCount(), record.isPrepaid());
+		bookingRequest.setRoomId(record.getRoomId());
+		return bookingRequest;
+	}
+
+	/**
+	 * Reads the booking with the given id, which must match the slot's generation.
+	 */
+	private boolean read(String id, BookingRecord record) {
+		long parsed;
+		try {
+			parsed = BookingIdGenerator.parse(id);
+		} catch (NumberFormatException e) {
+			return false;
+		}
+		if (parsed < 0) {
+			return false;
+		}
+		return read((int) parsed, record) && record.getGeneration() == (int) (parsed >>> 32);
+	}
+
+	/**
+	 * Takes a deleted slot if there is one, the next unused slot otherwise.
+	 */
+	private int takeSlot() {
+		synchronized (freeSlots) {
+			if (freeSlotCount > 0) {
+				return freeSlots[--freeSlotCount];
+			}
+		}
+		int slot = nextSlot.getAndIncrement();
+		if (slot >= capacity) {
+			nextSlot.decrementAndGet();
+			throw new IllegalStateException("Booking store is full: " + capacity + " records");
+		}
+		return slot;
+	}
+
+	private static String idOf(int slot, int generation) {
+		return BookingIdGenerator.toString((long) generation << 32 | slot);
+	}
+
+	private static int toEpochDay(LocalDate date) {
+		return date == null ? BookingRecord.NO_DATE : Math.toIntExact(date.toEpochDay());
+	}
+
+	private static LocalDate toDate(int epochDay) {
+		return epochDay == BookingRecord.NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+	}
+
+}
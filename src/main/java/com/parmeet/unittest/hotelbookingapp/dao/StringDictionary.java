@@ -0,0 +1,49 @@
+package com.parmeet.unittest.hotelbookingapp.dao;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns strings to dense int codes so records can store ids as fixed-width ints.
+ * {@code null} is encoded as -1.
+ */
+public class StringDictionary {
+
+	private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+	private volatile String[] values = new String[16];
+	private int size;
+
+	public int encode(String value) {
+		if (value == null) {
+			return -1;
+		}
+		Integer code = codes.get(value);
+		if (code != null) {
+			return code;
+		}
+		synchronized (this) {
+			code = codes.get(value);
+			if (code == null) {
+				String[] current = values;
+				if (size == current.length) {
+					current = Arrays.copyOf(current, size * 2);
+				}
+				current[size] = value;
+				values = current;
+				code = size++;
+				codes.put(value, code);
+			}
+			return code;
+		}
+	}
+
+	public String decode(int code) {
+		return code < 0 ? null : values[code];
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+}
@@ -2,4 +2,24 @@ package com.parmeet.unittest.hotelbookingapp.exception;
 
 public class BusinessException extends RuntimeException {
 
+	/**
+	 * Shared, stackless instances for failures that are part of normal operation, such as
+	 * a sold-out night. Throwing them costs no stack-trace capture.
+	 */
+	public static final BusinessException NO_ROOM_AVAILABLE = new BusinessException("No room available", false);
+	public static final BusinessException ROOM_NOT_AVAILABLE = new BusinessException("Room not available", false);
+	public static final BusinessException UNKNOWN_ROOM = new BusinessException("Unknown room", false);
+
+	public BusinessException() {
+		super();
+	}
+
+	public BusinessException(String message) {
+		super(message);
+	}
+
+	protected BusinessException(String message, boolean writableStackTrace) {
+		super(message, null, false, writableStackTrace);
+	}
+
 }
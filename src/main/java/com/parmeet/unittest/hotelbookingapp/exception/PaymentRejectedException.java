@@ -0,0 +1,44 @@
+package com.parmeet.unittest.hotelbookingapp.exception;
+
+/**
+ * Thrown when a payment rule rejects a payment, or the payment processor declines a
+ * settled charge. Rejections are routine under a fraud burst, so the exception captures
+ * no stack trace and builds its message only when asked for it.
+ */
+public class PaymentRejectedException extends UnsupportedOperationException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Rule code of a charge the payment processor declined; the rule name then gives the
+	 * reason.
+	 */
+	public static final int DECLINED = -1;
+
+	private final int ruleCode;
+	private final String ruleName;
+
+	public PaymentRejectedException(int ruleCode, String ruleName) {
+		this.ruleCode = ruleCode;
+		this.ruleName = ruleName;
+	}
+
+	public int getRuleCode() {
+		return ruleCode;
+	}
+
+	public String getRuleName() {
+		return ruleName;
+	}
+
+	@Override
+	public String getMessage() {
+		return ruleCode == DECLINED ? ruleName : "Payment rejected by rule " + ruleName;
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+
+}
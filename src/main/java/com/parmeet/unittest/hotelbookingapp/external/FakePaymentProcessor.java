@@ -0,0 +1,48 @@
+package com.parmeet.unittest.hotelbookingapp.external;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local acquirer stand-in with a fixed latency per round-trip. Charges above the
+ * decline limit are declined.
+ */
+public class FakePaymentProcessor implements PaymentProcessor {
+
+	private final long latencyMillis;
+	private final long declineAboveMinor;
+	private final AtomicInteger roundTrips = new AtomicInteger();
+	private final AtomicLong references = new AtomicLong();
+
+	public FakePaymentProcessor(long latencyMillis) {
+		this(latencyMillis, Long.MAX_VALUE);
+	}
+
+	public FakePaymentProcessor(long latencyMillis, long declineAboveMinor) {
+		this.latencyMillis = latencyMillis;
+		this.declineAboveMinor = declineAboveMinor;
+	}
+
+	@Override
+	public List<String> settle(List<PaymentCharge> charges) {
+		roundTrips.incrementAndGet();
+		try {
+			Thread.sleep(latencyMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while settling", e);
+		}
+		List<String> settled = new ArrayList<>(charges.size());
+		for (PaymentCharge charge : charges) {
+			settled.add(charge.getAmountMinor() > declineAboveMinor ? null : "stl-" + references.incrementAndGet());
+		}
+		return settled;
+	}
+
+	public int getRoundTrips() {
+		return roundTrips.get();
+	}
+
+}
@@ -0,0 +1,29 @@
+package com.parmeet.unittest.hotelbookingapp.external;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Stand-in transport that keeps every delivered batch, for tests and local runs.
+ */
+public class InMemoryMailTransport implements MailTransport {
+
+	private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+	@Override
+	public void sendBookingConfirmations(List<String> bookingIds) {
+		batches.add(List.copyOf(bookingIds));
+	}
+
+	public List<List<String>> getBatches() {
+		return batches;
+	}
+
+	public List<String> getBookingIds() {
+		List<String> bookingIds = new ArrayList<>();
+		batches.forEach(bookingIds::addAll);
+		return bookingIds;
+	}
+
+}
@@ -0,0 +1,178 @@
+package com.parmeet.unittest.hotelbookingapp.external;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link MailSender} that only enqueues confirmations. A background worker drains the
+ * bounded queue in batches and hands them to the {@link MailTransport}, retrying failed
+ * batches with exponential backoff. When the queue is full, senders wait up to the
+ * offer timeout and then get an {@link IllegalStateException}; a list of confirmations
+ * is queued all together or not at all. Confirmations that still fail after the last
+ * attempt are kept in {@link #getUndeliveredConfirmations()}.
+ * <p>
+ * Queueing and {@link #close()} take the same lock, so a confirmation is either refused
+ * or queued before the worker sees the outbox closed and empty, and is never lost.
+ */
+public class MailOutbox extends MailSender implements AutoCloseable {
+
+	private final MailTransport transport;
+	private final Deque<String> queue;
+	private final int capacity;
+	private final int batchSize;
+	private final int maxAttempts;
+	private final long initialBackoffMillis;
+	private final long offerTimeoutMillis;
+	private final Queue<String> undelivered = new ConcurrentLinkedQueue<>();
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+	private final Thread worker;
+	private boolean closed;
+
+	public MailOutbox(MailTransport transport) {
+		this(transport, 10_000, 100, 5, 100, 50);
+	}
+
+	public MailOutbox(MailTransport transport, int capacity, int batchSize, int maxAttempts,
+			long initialBackoffMillis, long offerTimeoutMillis) {
+		this.transport = transport;
+		this.queue = new ArrayDeque<>(capacity);
+		this.capacity = capacity;
+		this.batchSize = batchSize;
+		this.maxAttempts = maxAttempts;
+		this.initialBackoffMillis = initialBackoffMillis;
+		this.offerTimeoutMillis = offerTimeoutMillis;
+		this.worker = new Thread(this::drain, "mail-outbox");
+		this.worker.setDaemon(true);
+		this.worker.start();
+	}
+
+	@Override
+	public void sendBookingConfirmation(String bookingId) {
+		enqueue(Collections.singletonList(bookingId));
+	}
+
+	@Override
+	public void sendBookingConfirmations(List<String> bookingIds) {
+		enqueue(bookingIds);
+	}
+
+	public int getPendingCount() {
+		lock.lock();
+		try {
+			return queue.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public List<String> getUndeliveredConfirmations() {
+		return new ArrayList<>(undelivered);
+	}
+
+	/**
+	 * Stops accepting work, delivers what is still queued and stops the worker.
+	 */
+	@Override
+	public void close() {
+		lock.lock();
+		try {
+			closed = true;
+			notEmpty.signalAll();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		try {
+			worker.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void enqueue(List<String> bookingIds) {
+		if (bookingIds.size() > capacity) {
+			throw new IllegalStateException("Mail outbox holds at most " + capacity + " confirmations");
+		}
+		lock.lock();
+		try {
+			long remainingNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+			while (!closed && capacity - queue.size() < bookingIds.size()) {
+				if (remainingNanos <= 0) {
+					throw new IllegalStateException("Mail outbox is full");
+				}
+				remainingNanos = notFull.awaitNanos(remainingNanos);
+			}
+			if (closed) {
+				throw new IllegalStateException("Mail outbox is closed");
+			}
+			queue.addAll(bookingIds);
+			notEmpty.signal();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while queueing confirmation", e);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void drain() {
+		List<String> batch = new ArrayList<>(batchSize);
+		while (true) {
+			lock.lock();
+			try {
+				while (queue.isEmpty() && !closed) {
+					notEmpty.await();
+				}
+				if (queue.isEmpty()) {
+					return;
+				}
+				while (batch.size() < batchSize && !queue.isEmpty()) {
+					batch.add(queue.poll());
+				}
+				notFull.signalAll();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				lock.unlock();
+			}
+			try {
+				deliver(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private void deliver(List<String> batch) throws InterruptedException {
+		long backoff = initialBackoffMillis;
+		List<String> bookingIds = List.copyOf(batch);
+		for (int attempt = 1; ; attempt++) {
+			try {
+				transport.sendBookingConfirmations(bookingIds);
+				return;
+			} catch (RuntimeException e) {
+				if (attempt >= maxAttempts) {
+					undelivered.addAll(bookingIds);
+					return;
+				}
+				Thread.sleep(backoff);
+				backoff *= 2;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,9 @@
+package com.parmeet.unittest.hotelbookingapp.external;
+
+import java.util.List;
+
+public interface MailTransport {
+
+	void sendBookingConfirmations(List<String> bookingIds);
+
+}
@@ -0,0 +1,21 @@
+package com.parmeet.unittest.hotelbookingapp.external;
+
+public class PaymentCharge {
+
+	private final String idempotencyKey;
+	private final long amountMinor;
+
+	public PaymentCharge(String idempotencyKey, long amountMinor) {
+		this.idempotencyKey = idempotencyKey;
+		this.amountMinor = amountMinor;
+	}
+
+	public String getIdempotencyKey() {
+		return idempotencyKey;
+	}
+
+	public long getAmountMinor() {
+		return amountMinor;
+	}
+
+}
@@ -0,0 +1,14 @@
+package com.parmeet.unittest.hotelbookingapp.external;
+
+import java.util.List;
+
+public interface PaymentProcessor {
+
+	/**
+	 * Settles all charges in one round-trip.
+	 *
+	 * @return one settlement reference per charge, in order, or {@code null} for a declined charge
+	 */
+	List<String> settle(List<PaymentCharge> charges);
+
+}
@@ -0,0 +1,88 @@
+package com.parmeet.unittest.hotelbookingapp.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A booking as made: the request's identity, the rooms assigned to it and the payment
+ * taken for it, if any. Unlike {@link BookingRequest}, every part is immutable, so a
+ * booking can be shared between threads.
+ */
+public final class Booking {
+
+	private final BookingKey key;
+	private final List<String> roomIds;
+	private final String paymentId;
+
+	public Booking(BookingKey key, List<String> roomIds, String paymentId) {
+		this.key = Objects.requireNonNull(key);
+		this.roomIds = Collections.unmodifiableList(new ArrayList<>(roomIds));
+		this.paymentId = paymentId;
+	}
+
+	/**
+	 * @return the booking for a stored request, without payment
+	 */
+	public static Booking of(BookingRequest bookingRequest) {
+		return new Booking(BookingKey.of(bookingRequest), bookingRequest.getRoomIds(), null);
+	}
+
+	public BookingKey getKey() {
+		return key;
+	}
+
+	/**
+	 * @return the first room, or {@code null} if none is assigned
+	 */
+	public String getRoomId() {
+		return roomIds.isEmpty() ? null : roomIds.get(0);
+	}
+
+	public List<String> getRoomIds() {
+		return roomIds;
+	}
+
+	/**
+	 * @return the payment to refund on cancellation, or {@code null} if paid at the hotel
+	 */
+	public String getPaymentId() {
+		return paymentId;
+	}
+
+	public boolean isGroupBooking() {
+		return roomIds.size() > 1;
+	}
+
+	public BookingRequest toRequest() {
+		BookingRequest bookingRequest = key.toRequest();
+		if (isGroupBooking()) {
+			bookingRequest.setRoomIds(roomIds);
+		} else {
+			bookingRequest.setRoomId(getRoomId());
+		}
+		return bookingRequest;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * key.hashCode() + roomIds.hashCode()) + Objects.hashCode(paymentId);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof Booking))
+			return false;
+		Booking other = (Booking) obj;
+		return key.equals(other.key) && roomIds.equals(other.roomIds) && Objects.equals(paymentId, other.paymentId);
+	}
+
+	@Override
+	public String toString() {
+		return "Booking [key=" + key + ", roomIds=" + roomIds + ", paymentId=" + paymentId + "]";
+	}
+
+}
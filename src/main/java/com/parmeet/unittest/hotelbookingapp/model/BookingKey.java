@@ -0,0 +1,106 @@
+package com.parmeet.unittest.hotelbookingapp.model;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Immutable identity of a booking request: who, when and for how many, without the room
+ * assignment. Dates are stored as epoch days and the hash is computed once, so the key
+ * is cheap to keep in maps and to look up repeatedly.
+ */
+public final class BookingKey {
+
+	private static final int NO_DATE = Integer.MIN_VALUE;
+
+	private final String userId;
+	private final int epochDayFrom;
+	private final int epochDayTo;
+	private final int guestCount;
+	private final boolean prepaid;
+	private final int hash;
+
+	public BookingKey(String userId, LocalDate dateFrom, LocalDate dateTo, int guestCount, boolean prepaid) {
+		this.userId = userId;
+		this.epochDayFrom = toEpochDay(dateFrom);
+		this.epochDayTo = toEpochDay(dateTo);
+		this.guestCount = guestCount;
+		this.prepaid = prepaid;
+		int result = Objects.hashCode(userId);
+		result = 31 * result + epochDayFrom;
+		result = 31 * result + epochDayTo;
+		result = 31 * result + guestCount;
+		result = 31 * result + (prepaid ? 1231 : 1237);
+		this.hash = result;
+	}
+
+	public static BookingKey of(BookingRequest bookingRequest) {
+		return new BookingKey(bookingRequest.getUserId(), bookingRequest.getDateFrom(), bookingRequest.getDateTo(),
+				bookingRequest.getGuestCount(), bookingRequest.isPrepaid());
+	}
+
+	public String getUserId() {
+		return userId;
+	}
+
+	public LocalDate getDateFrom() {
+		return toDate(epochDayFrom);
+	}
+
+	public LocalDate getDateTo() {
+		return toDate(epochDayTo);
+	}
+
+	public int getEpochDayFrom() {
+		return epochDayFrom;
+	}
+
+	public int getEpochDayTo() {
+		return epochDayTo;
+	}
+
+	public int getGuestCount() {
+		return guestCount;
+	}
+
+	public boolean isPrepaid() {
+		return prepaid;
+	}
+
+	public BookingRequest toRequest() {
+		return new BookingRequest(userId, getDateFrom(), getDateTo(), guestCount, prepaid);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof BookingKey))
+			return false;
+		BookingKey other = (BookingKey) obj;
+		return hash == other.hash
+				&& epochDayFrom == other.epochDayFrom
+				&& epochDayTo == other.epochDayTo
+				&& guestCount == other.guestCount
+				&& prepaid == other.prepaid
+				&& Objects.equals(userId, other.userId);
+	}
+
+	@Override
+	public String toString() {
+		return userId + '|' + getDateFrom() + '|' + getDateTo() + '|' + guestCount + '|' + prepaid;
+	}
+
+	private static int toEpochDay(LocalDate date) {
+		return date == null ? NO_DATE : Math.toIntExact(date.toEpochDay());
+	}
+
+	private static LocalDate toDate(int epochDay) {
+		return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+	}
+
+}
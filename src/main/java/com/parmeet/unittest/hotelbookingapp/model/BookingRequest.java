@@ -1,6 +1,8 @@
 package com.parmeet.unittest.hotelbookingapp.model;
 
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
 
 public class BookingRequest {
 
@@ -10,6 +12,7 @@ public class BookingRequest {
 	private final int guestCount;
 	private final boolean prepaid;
 	private String roomId;
+	private List<String> roomIds;
 	
 	public BookingRequest(String userId, LocalDate dateFrom, LocalDate dateTo, int guestCount, boolean prepaid) {
 		super();
@@ -46,8 +49,35 @@ public class BookingRequest {
 
 	public void setRoomId(String roomId) {
 		this.roomId = roomId;
+		this.roomIds = null;
 	}
 
+	/**
+	 * @return every room of a group booking, otherwise the single room, if any
+	 */
+	public List<String> getRoomIds() {
+		if (roomIds != null) {
+			return roomIds;
+		}
+		return roomId == null ? Collections.emptyList() : Collections.singletonList(roomId);
+	}
+
+	/**
+	 * Assigns the rooms of a group booking; {@link #getRoomId()} returns the first.
+	 */
+	public void setRoomIds(List<String> roomIds) {
+		this.roomIds = List.copyOf(roomIds);
+		this.roomId = roomIds.isEmpty() ? null : roomIds.get(0);
+	}
+
+	public boolean isGroupBooking() {
+		return roomIds != null && roomIds.size() > 1;
+	}
+
+	/**
+	 * Requests are equal if they ask for the same stay; the rooms assigned to them do
+	 * not take part.
+	 */
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -57,7 +87,6 @@ public class BookingRequest {
 		result = prime * result + ((dateTo == null) ? 0 : dateTo.hashCode());
 		result = prime * result + guestCount;
 		result = prime * result + (prepaid ? 1231 : 1237);
-		result = prime * result + ((roomId == null) ? 0 : roomId.hashCode());
 		result = prime * result + ((userId == null) ? 0 : userId.hashCode());
 		return result;
 	}
@@ -85,11 +114,6 @@ public class BookingRequest {
 			return false;
 		if (prepaid != other.prepaid)
 			return false;
-		if (roomId == null) {
-			if (other.roomId != null)
-				return false;
-		} else if (!roomId.equals(other.roomId))
-			return false;
 		if (userId == null) {
 			if (other.userId != null)
 				return false;
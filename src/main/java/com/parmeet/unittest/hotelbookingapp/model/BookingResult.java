@@ -0,0 +1,147 @@
+package com.parmeet.unittest.hotelbookingapp.model;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Outcome of a booking attempt: {@link Booked}, {@link NoRoom}, {@link PaymentRejected}
+ * or {@link Failed}. The constructor is private, so these are the only subtypes.
+ */
+public abstract class BookingResult {
+
+	private final BookingRequest bookingRequest;
+
+	private BookingResult(BookingRequest bookingRequest) {
+		this.bookingRequest = bookingRequest;
+	}
+
+	public static BookingResult booked(BookingRequest bookingRequest, String bookingId) {
+		return new Booked(bookingRequest, bookingId, null);
+	}
+
+	public static BookingResult noRoom(BookingRequest bookingRequest) {
+		return new NoRoom(bookingRequest, null);
+	}
+
+	public static BookingResult noRoom(BookingRequest bookingRequest, CompletableFuture<BookingResult> waitlisted) {
+		return new NoRoom(bookingRequest, waitlisted);
+	}
+
+	public static BookingResult paymentRejected(BookingRequest bookingRequest, String rule) {
+		return new PaymentRejected(bookingRequest, rule);
+	}
+
+	public static BookingResult failed(BookingRequest bookingRequest, RuntimeException failure) {
+		return new Failed(bookingRequest, failure);
+	}
+
+	public BookingRequest getBookingRequest() {
+		return bookingRequest;
+	}
+
+	public boolean isSuccess() {
+		return false;
+	}
+
+	/**
+	 * @return the booking id if booked, otherwise {@code null}
+	 */
+	public String getBookingId() {
+		return null;
+	}
+
+	/**
+	 * @return the exception behind a {@link Failed} result or a booking's failed
+	 * confirmation, otherwise {@code null}
+	 */
+	public RuntimeException getFailure() {
+		return null;
+	}
+
+	public BookingResult withConfirmationFailure(RuntimeException failure) {
+		return this;
+	}
+
+	/**
+	 * The booking was saved. A booking can still carry a failure when its confirmation
+	 * mail could not be sent.
+	 */
+	public static final class Booked extends BookingResult {
+
+		private final String bookingId;
+		private final RuntimeException confirmationFailure;
+
+		private Booked(BookingRequest bookingRequest, String bookingId, RuntimeException confirmationFailure) {
+			super(bookingRequest);
+			this.bookingId = bookingId;
+			this.confirmationFailure = confirmationFailure;
+		}
+
+		@Override
+		public boolean isSuccess() {
+			return true;
+		}
+
+		@Override
+		public String getBookingId() {
+			return bookingId;
+		}
+
+		@Override
+		public RuntimeException getFailure() {
+			return confirmationFailure;
+		}
+
+		@Override
+		public BookingResult withConfirmationFailure(RuntimeException failure) {
+			return new Booked(getBookingRequest(), bookingId, failure);
+		}
+	}
+
+	public static final class NoRoom extends BookingResult {
+
+		private final CompletableFuture<BookingResult> waitlisted;
+
+		private NoRoom(BookingRequest bookingRequest, CompletableFuture<BookingResult> waitlisted) {
+			super(bookingRequest);
+			this.waitlisted = waitlisted;
+		}
+
+		/**
+		 * @return completed once the request is booked from the waitlist, or {@code null}
+		 * if it was not waitlisted
+		 */
+		public CompletableFuture<BookingResult> getWaitlisted() {
+			return waitlisted;
+		}
+	}
+
+	public static final class PaymentRejected extends BookingResult {
+
+		private final String rule;
+
+		private PaymentRejected(BookingRequest bookingRequest, String rule) {
+			super(bookingRequest);
+			this.rule = rule;
+		}
+
+		public String getRule() {
+			return rule;
+		}
+	}
+
+	public static final class Failed extends BookingResult {
+
+		private final RuntimeException failure;
+
+		private Failed(BookingRequest bookingRequest, RuntimeException failure) {
+			super(bookingRequest);
+			this.failure = failure;
+		}
+
+		@Override
+		public RuntimeException getFailure() {
+			return failure;
+		}
+	}
+
+}
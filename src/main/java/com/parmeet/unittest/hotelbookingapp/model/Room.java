@@ -2,12 +2,23 @@ package com.parmeet.unittest.hotelbookingapp.model;
 
 public class Room {
 
+	public static final String DEFAULT_TYPE = "default";
+
 	private final String id;
 	private final int capacity;
+	private final String type;
 
 	public Room(String id, int capacity) {
+		this(id, capacity, DEFAULT_TYPE);
+	}
+
+	/**
+	 * @param type the room type, which selects the rates the room is priced with
+	 */
+	public Room(String id, int capacity, String type) {
 		this.id = id;
 		this.capacity = capacity;
+		this.type = type;
 	}
 
 	public int getCapacity() {
@@ -18,12 +29,17 @@ public class Room {
 		return id;
 	}
 
+	public String getType() {
+		return type;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + capacity;
 		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		result = prime * result + ((type == null) ? 0 : type.hashCode());
 		return result;
 	}
 
@@ -43,6 +59,11 @@ public class Room {
 				return false;
 		} else if (!id.equals(other.id))
 			return false;
+		if (type == null) {
+			if (other.type != null)
+				return false;
+		} else if (!type.equals(other.type))
+			return false;
 		return true;
 	}
 
@@ -0,0 +1,24 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+/**
+ * How a {@link RoomInventory} picks a room for a party.
+ */
+public enum AllocationPolicy {
+
+	/**
+	 * Only rooms whose capacity equals the guest count.
+	 */
+	EXACT_MATCH,
+
+	/**
+	 * The smallest room with a free bed for every guest.
+	 */
+	BEST_FIT,
+
+	/**
+	 * Best fit, and among rooms of that size the one whose calendar leaves the fewest
+	 * free nights around the stay, so stays pack tightly and long free runs stay sellable.
+	 */
+	MIN_WASTE
+
+}
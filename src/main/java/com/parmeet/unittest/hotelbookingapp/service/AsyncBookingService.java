@@ -0,0 +1,63 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs {@link BookingService} calls, including their payment and mail I/O, on an
+ * executor and returns futures. With {@link #newVirtualThreadExecutor()} every call
+ * gets its own virtual thread, so thousands of blocked calls cost no platform threads.
+ */
+public class AsyncBookingService implements AutoCloseable {
+
+	private final BookingService bookingService;
+	private final ExecutorService executor;
+
+	public AsyncBookingService(BookingService bookingService, ExecutorService executor) {
+		this.bookingService = bookingService;
+		this.executor = executor;
+	}
+
+	public CompletableFuture<String> makeBooking(BookingRequest bookingRequest) {
+		return CompletableFuture.supplyAsync(() -> bookingService.makeBooking(bookingRequest), executor);
+	}
+
+	public CompletableFuture<Void> cancelBooking(String bookingId) {
+		return CompletableFuture.runAsync(() -> bookingService.cancelBooking(bookingId), executor);
+	}
+
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+
+	public static boolean isVirtualThreadSupported() {
+		try {
+			Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * {@code Executors.newVirtualThreadPerTaskExecutor()}, looked up at runtime because
+	 * the code base still compiles for Java 11.
+	 *
+	 * @throws UnsupportedOperationException on JVMs older than Java 21
+	 */
+	public static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (NoSuchMethodException e) {
+			throw new UnsupportedOperationException("Virtual threads need Java 21 or later", e);
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException("Cannot create virtual thread executor", e);
+		}
+	}
+
+}
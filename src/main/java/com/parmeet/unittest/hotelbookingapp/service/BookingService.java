@@ -1,60 +1,535 @@
 package com.parmeet.unittest.hotelbookingapp.service;
 
 
-import com.parmeet.unittest.hotelbookingapp.dao.BookingDAO;
+import com.parmeet.unittest.hotelbookingapp.dao.BookingStore;
+import com.parmeet.unittest.hotelbookingapp.exception.BusinessException;
+import com.parmeet.unittest.hotelbookingapp.exception.PaymentRejectedException;
 import com.parmeet.unittest.hotelbookingapp.external.MailSender;
+import com.parmeet.unittest.hotelbookingapp.model.Booking;
+import com.parmeet.unittest.hotelbookingapp.model.BookingKey;
 import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import com.parmeet.unittest.hotelbookingapp.model.BookingResult;
+import com.parmeet.unittest.hotelbookingapp.util.Currency;
 import com.parmeet.unittest.hotelbookingapp.util.CurrencyConverter;
+import com.parmeet.unittest.hotelbookingapp.util.Money;
 
-import java.time.temporal.ChronoUnit;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 public class BookingService {
 
+	private static final int MAX_WAITLIST_ATTEMPTS = 8;
+
 	private final PaymentService paymentService;
-	private final RoomService roomService;
-	private final BookingDAO bookingDAO;
+	private final RoomInventory roomService;
+	private final BookingStore bookingDAO;
 	private final MailSender mailSender;
+	private final Map<BookingKey, String> bookingIds = new ConcurrentHashMap<>();
+	private final Map<String, Booking> bookings = new ConcurrentHashMap<>();
+	private PricingService pricingService = new PricingService();
+	private Waitlist waitlist;
+	private Executor waitlistExecutor = Runnable::run;
+	private boolean settledPayments;
 
-	private final static double BASE_PRICE_USD = 50.0;
+	/**
+	 * @return the live booking with its rooms and payment, or {@code null} if there is
+	 * none with this id made since start-up
+	 */
+	public Booking getBooking(String id) {
+		return bookings.get(id);
+	}
 
 	public int getAvailablePlaceCount() {
-		return roomService.getAvailableRooms()
-				.stream()
-				.map(room -> room.getCapacity())
-				.reduce(0, Integer::sum);
+		return roomService.getAvailablePlaceCount();
+	}
+
+	public int getAvailablePlaceCount(LocalDate night) {
+		return roomService.getAvailablePlaceCount(night);
 	}
 	
+	/**
+	 * Prices the request with the rates of its room's type, or with the default rates
+	 * while no room is assigned yet.
+	 */
 	public double calculatePrice(BookingRequest bookingRequest) {
-		long nights = ChronoUnit.DAYS.between(bookingRequest.getDateFrom(), bookingRequest.getDateTo());
-		return BASE_PRICE_USD * bookingRequest.getGuestCount() * nights;
+		return priceFor(bookingRequest, bookingRequest.getRoomId());
 	}
 	
+	public double calculatePrice(BookingRequest bookingRequest, Currency currency) {
+		return CurrencyConverter.convert(calculatePrice(bookingRequest), Currency.USD, currency);
+	}
+
+	/**
+	 * Exact variant of {@link #calculatePrice(BookingRequest, Currency)}, in whole minor units
+	 * of {@code currency}.
+	 */
+	public Money quotePrice(BookingRequest bookingRequest, Currency currency) {
+		return CurrencyConverter.convert(pricingService.quote(roomTypeOf(bookingRequest.getRoomId()), bookingRequest),
+				currency);
+	}
+
+	/**
+	 * @deprecated use {@link #calculatePrice(BookingRequest, Currency)} with {@link Currency#EUR}
+	 */
+	@Deprecated
 	public double calculatePriceEuro(BookingRequest bookingRequest) {
 		return CurrencyConverter.toEuro(calculatePrice(bookingRequest));
 	}
 
+	/**
+	 * Books the request, or returns the id of the live booking already made for the same
+	 * request, so a retried call neither takes a second room nor charges twice. A request
+	 * that finds no room is not waitlisted; {@link #tryMakeBooking(BookingRequest)} does that.
+	 */
 	public String makeBooking(BookingRequest bookingRequest) {
-		String roomId = roomService.findAvailableRoomId(bookingRequest);
-		double price = calculatePrice(bookingRequest);
+		BookingKey key = BookingKey.of(bookingRequest);
+		String existingId = bookingIds.get(key);
+		if (existingId != null) {
+			return existingId;
+		}
+		String roomId = roomService.claimRoom(bookingRequest);
+		return completeBooking(key, bookingRequest, roomId);
+	}
+
+	/**
+	 * Claims a room for the request and keeps it for {@code holdMillis}, e.g. while the
+	 * guest fills in the payment form. {@link #confirmHold(RoomHold)} books it; a hold
+	 * neither confirmed nor {@link #releaseHold(RoomHold) released} in time lapses.
+	 */
+	public RoomHold holdRoom(BookingRequest bookingRequest, long holdMillis) {
+		return roomService.holdRoom(bookingRequest, holdMillis);
+	}
+
+	/**
+	 * Books the held room like {@link #makeBooking(BookingRequest)}, or returns the id of
+	 * the live booking already made for the same request and gives the held room back.
+	 *
+	 * @throws BusinessException if the hold has lapsed or was released
+	 */
+	public String confirmHold(RoomHold hold) {
+		BookingRequest bookingRequest = hold.getBookingRequest();
+		BookingKey key = BookingKey.of(bookingRequest);
+		String existingId = bookingIds.get(key);
+		if (existingId != null) {
+			roomService.release(hold);
+			return existingId;
+		}
+		roomService.confirm(hold);
+		return completeBooking(key, bookingRequest, hold.getRoomId());
+	}
+
+	public void releaseHold(RoomHold hold) {
+		roomService.release(hold);
+	}
 
-		if (bookingRequest.isPrepaid()) {
-			paymentService.pay(bookingRequest, price);
+	/**
+	 * Pays for, saves and confirms a request whose room is already claimed, releasing
+	 * the room if the booking cannot be made.
+	 */
+	private String completeBooking(BookingKey key, BookingRequest bookingRequest, String roomId) {
+		String bookingId;
+		String paymentId = null;
+		try {
+			if (bookingRequest.isPrepaid()) {
+				paymentId = pay(bookingRequest, priceFor(bookingRequest, roomId));
+			}
+
+			bookingRequest.setRoomId(roomId);
+			bookingId = bookingDAO.save(bookingRequest);
+		} catch (RuntimeException e) {
+			rollBack(bookingRequest, Collections.singletonList(roomId), paymentId);
+			throw e;
+		}
+		String liveId = register(key, bookingId, bookingRequest, Collections.singletonList(roomId), paymentId);
+		if (liveId.equals(bookingId)) {
+			mailSender.sendBookingConfirmation(bookingId);
+		}
+		return liveId;
+	}
+	
+	/**
+	 * Books a party too large for one room over the fewest rooms that fit it, all under
+	 * one booking id, or returns the id of the live booking already made for the same
+	 * request. Cancelling the booking releases every room.
+	 */
+	public String makeGroupBooking(BookingRequest bookingRequest) {
+		BookingKey key = BookingKey.of(bookingRequest);
+		String existingId = bookingIds.get(key);
+		if (existingId != null) {
+			return existingId;
+		}
+		List<String> roomIds = roomService.claimRooms(bookingRequest);
+
+		String bookingId;
+		String paymentId = null;
+		try {
+			if (bookingRequest.isPrepaid()) {
+				paymentId = pay(bookingRequest, groupPriceFor(bookingRequest, roomIds));
+			}
+
+			bookingRequest.setRoomIds(roomIds);
+			bookingId = bookingDAO.save(bookingRequest);
+		} catch (RuntimeException e) {
+			rollBack(bookingRequest, roomIds, paymentId);
+			throw e;
+		}
+		String liveId = register(key, bookingId, bookingRequest, roomIds, paymentId);
+		if (liveId.equals(bookingId)) {
+			mailSender.sendBookingConfirmation(bookingId);
+		}
+		return liveId;
+	}
+
+	/**
+	 * Non-throwing variant of {@link #makeBooking(BookingRequest)} for the hot path:
+	 * a sold-out night or a rejected payment is reported as a result, not an exception.
+	 * A request that finds no room is waitlisted once however often it is retried, and
+	 * {@link BookingResult.NoRoom#getWaitlisted()} completes when it is booked from there.
+	 */
+	public BookingResult tryMakeBooking(BookingRequest bookingRequest) {
+		BookingResult result = book(bookingRequest);
+		if (result instanceof BookingResult.NoRoom) {
+			return BookingResult.noRoom(bookingRequest, addToWaitlist(bookingRequest));
+		}
+		return result;
+	}
+
+	private BookingResult book(BookingRequest bookingRequest) {
+		BookingKey key = BookingKey.of(bookingRequest);
+		String existingId = bookingIds.get(key);
+		if (existingId != null) {
+			return BookingResult.booked(bookingRequest, existingId);
+		}
+		String roomId = roomService.tryClaimRoom(bookingRequest);
+		if (roomId == null) {
+			return BookingResult.noRoom(bookingRequest);
+		}
+		return bookClaimed(key, bookingRequest, roomId);
+	}
+
+	/**
+	 * Pays for, saves and confirms a request whose room is already claimed, like
+	 * {@link #completeBooking} but reporting failures as results.
+	 */
+	private BookingResult bookClaimed(BookingKey key, BookingRequest bookingRequest, String roomId) {
+		PaymentResult payment;
+		try {
+			payment = tryPay(bookingRequest, roomId);
+		} catch (RuntimeException e) {
+			return BookingResult.failed(bookingRequest, e);
+		}
+		if (!payment.isAccepted()) {
+			return BookingResult.paymentRejected(bookingRequest, payment.getRuleName());
 		}
 
 		bookingRequest.setRoomId(roomId);
-		String bookingId = bookingDAO.save(bookingRequest);
-		roomService.bookRoom(roomId);
-		mailSender.sendBookingConfirmation(bookingId);
+		String bookingId;
+		try {
+			bookingId = bookingDAO.save(bookingRequest);
+		} catch (RuntimeException e) {
+			rollBack(bookingRequest, Collections.singletonList(roomId), payment.getPaymentId());
+			return BookingResult.failed(bookingRequest, e);
+		}
+		String liveId = register(key, bookingId, bookingRequest, Collections.singletonList(roomId),
+				payment.getPaymentId());
+		BookingResult result = BookingResult.booked(bookingRequest, liveId);
+		if (!liveId.equals(bookingId)) {
+			return result;
+		}
+		try {
+			mailSender.sendBookingConfirmation(bookingId);
+		} catch (RuntimeException e) {
+			return result.withConfirmationFailure(e);
+		}
+		return result;
+	}
+
+	/**
+	 * Books a batch of requests, e.g. a group or tour-operator import. Rooms are claimed
+	 * in one pass, accepted bookings are saved together and their confirmations go out
+	 * in one mail call. A failing request only fails its own result. If saving the
+	 * batch fails, none of it is stored and every accepted request is rolled back.
+	 * A request repeated within the batch, or already booked, gets the same result as
+	 * the booking it repeats.
+	 */
+	public List<BookingResult> makeBookings(List<BookingRequest> bookingRequests) {
+		BookingResult[] results = new BookingResult[bookingRequests.size()];
+		BookingKey[] keys = new BookingKey[results.length];
+		String[] roomIds = new String[results.length];
+		String[] paymentIds = new String[results.length];
+		Map<BookingKey, Integer> firstOfKey = new HashMap<>();
+		List<Integer> accepted = new ArrayList<>(bookingRequests.size());
+
+		for (int i = 0; i < results.length; i++) {
+			BookingRequest bookingRequest = bookingRequests.get(i);
+			keys[i] = BookingKey.of(bookingRequest);
+			String existingId = bookingIds.get(keys[i]);
+			if (existingId != null) {
+				results[i] = BookingResult.booked(bookingRequest, existingId);
+				continue;
+			}
+			if (firstOfKey.putIfAbsent(keys[i], i) != null) {
+				continue;
+			}
+			String roomId = roomService.tryClaimRoom(bookingRequest);
+			if (roomId == null) {
+				results[i] = BookingResult.noRoom(bookingRequest, addToWaitlist(bookingRequest));
+				continue;
+			}
+			PaymentResult payment;
+			try {
+				payment = tryPay(bookingRequest, roomId);
+			} catch (RuntimeException e) {
+				results[i] = BookingResult.failed(bookingRequest, e);
+				continue;
+			}
+			if (!payment.isAccepted()) {
+				results[i] = BookingResult.paymentRejected(bookingRequest, payment.getRuleName());
+				continue;
+			}
+			roomIds[i] = roomId;
+			paymentIds[i] = payment.getPaymentId();
+			bookingRequest.setRoomId(roomId);
+			accepted.add(i);
+		}
+
+		List<BookingRequest> toSave = new ArrayList<>(accepted.size());
+		accepted.forEach(i -> toSave.add(bookingRequests.get(i)));
+		List<String> savedIds;
+		try {
+			savedIds = bookingDAO.saveAll(toSave);
+		} catch (RuntimeException e) {
+			for (int i : accepted) {
+				BookingRequest bookingRequest = bookingRequests.get(i);
+				rollBack(bookingRequest, Collections.singletonList(roomIds[i]), paymentIds[i]);
+				results[i] = BookingResult.failed(bookingRequest, e);
+			}
+			return List.of(copyRepeatedResults(results, keys, firstOfKey));
+		}
+		List<Integer> confirmed = new ArrayList<>(accepted.size());
+		List<String> confirmedIds = new ArrayList<>(accepted.size());
+		for (int j = 0; j < accepted.size(); j++) {
+			int i = accepted.get(j);
+			BookingRequest bookingRequest = bookingRequests.get(i);
+			String bookingId = savedIds.get(j);
+			String liveId = register(keys[i], bookingId, bookingRequest,
+					Collections.singletonList(roomIds[i]), paymentIds[i]);
+			results[i] = BookingResult.booked(bookingRequest, liveId);
+			if (liveId.equals(bookingId)) {
+				confirmed.add(i);
+				confirmedIds.add(bookingId);
+			}
+		}
+
+		if (!confirmedIds.isEmpty()) {
+			try {
+				mailSender.sendBookingConfirmations(confirmedIds);
+			} catch (RuntimeException e) {
+				confirmed.forEach(i -> results[i] = results[i].withConfirmationFailure(e));
+			}
+		}
+		return List.of(copyRepeatedResults(results, keys, firstOfKey));
+	}
+
+	private static BookingResult[] copyRepeatedResults(BookingResult[] results, BookingKey[] keys,
+			Map<BookingKey, Integer> firstOfKey) {
+		for (int i = 0; i < results.length; i++) {
+			if (results[i] == null) {
+				results[i] = results[firstOfKey.get(keys[i])];
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Charges a prepaid request whose room is already claimed, releasing the room if
+	 * the payment does not go through. Requests paid at the hotel are accepted without
+	 * a payment id.
+	 */
+	private PaymentResult tryPay(BookingRequest bookingRequest, String roomId) {
+		if (!bookingRequest.isPrepaid()) {
+			return PaymentResult.accepted(null);
+		}
+		PaymentResult payment;
+		try {
+			payment = charge(bookingRequest, priceFor(bookingRequest, roomId));
+		} catch (RuntimeException e) {
+			releaseRoom(bookingRequest, roomId);
+			throw e;
+		}
+		if (!payment.isAccepted()) {
+			releaseRoom(bookingRequest, roomId);
+		}
+		return payment;
+	}
+
+	private String pay(BookingRequest bookingRequest, double price) {
+		if (!settledPayments) {
+			return paymentService.pay(bookingRequest, price);
+		}
+		try {
+			return paymentService.payAsync(bookingRequest, price).join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+	}
+
+	private PaymentResult charge(BookingRequest bookingRequest, double price) {
+		if (!settledPayments) {
+			return paymentService.charge(bookingRequest, price);
+		}
+		try {
+			return PaymentResult.accepted(pay(bookingRequest, price));
+		} catch (PaymentRejectedException e) {
+			return PaymentResult.rejected(e.getRuleCode(), e.getRuleName());
+		}
+	}
+
+	/**
+	 * Makes a saved booking the live booking for its request and records its rooms and
+	 * payment for {@link #cancelBooking(String)}. If a concurrent retry of
+	 * the same request got there first, this booking is deleted and its rooms released;
+	 * the payment, which both share, stays with the earlier booking.
+	 *
+	 * @return the id of the live booking
+	 */
+	private String register(BookingKey key, String bookingId, BookingRequest bookingRequest, List<String> roomIds,
+			String paymentId) {
+		String earlierId = bookingIds.putIfAbsent(key, bookingId);
+		if (earlierId != null) {
+			bookingDAO.delete(bookingId);
+			releaseRooms(bookingRequest, roomIds);
+			return earlierId;
+		}
+		bookings.put(bookingId, new Booking(key, roomIds, paymentId));
 		return bookingId;
 	}
-	
+
+	/**
+	 * Undoes a booking that was claimed and possibly charged but could not be saved.
+	 */
+	private void rollBack(BookingRequest bookingRequest, List<String> roomIds, String paymentId) {
+		releaseRooms(bookingRequest, roomIds);
+		if (paymentId != null) {
+			paymentService.refund(paymentId);
+		}
+	}
+
+	private double priceFor(BookingRequest bookingRequest, String roomId) {
+		return pricingService.calculatePrice(roomTypeOf(roomId), bookingRequest);
+	}
+
+	private String roomTypeOf(String roomId) {
+		return roomId == null ? null : roomService.getRoomType(roomId);
+	}
+
+	/**
+	 * Fills the rooms in order, the largest first as {@link RoomInventory#claimRooms} returns
+	 * them, and prices each room's guests with the rates of its type.
+	 */
+	private double groupPriceFor(BookingRequest bookingRequest, List<String> roomIds) {
+		double price = 0;
+		int remaining = bookingRequest.getGuestCount();
+		for (String roomId : roomIds) {
+			int guests = Math.min(remaining, roomService.getRoomCapacity(roomId));
+			price += pricingService.calculatePrice(roomTypeOf(roomId), bookingRequest, guests);
+			remaining -= guests;
+		}
+		return price;
+	}
+
+	private void releaseRooms(BookingRequest bookingRequest, List<String> roomIds) {
+		for (String roomId : roomIds) {
+			releaseRoom(bookingRequest, roomId);
+		}
+	}
+
+	private void releaseRoom(BookingRequest bookingRequest, String roomId) {
+		if (bookingRequest.getDateFrom() == null || bookingRequest.getDateTo() == null) {
+			roomService.unbookRoom(roomId);
+		} else {
+			roomService.unbookRoom(roomId, bookingRequest.getDateFrom(), bookingRequest.getDateTo());
+		}
+	}
+
+	/**
+	 * Cancels the booking and offers its rooms to the waitlist. Offering a room may book
+	 * several waiting requests in turn; that runs on the waitlist executor, by default
+	 * the calling thread.
+	 */
 	public void cancelBooking(String id) {
-		BookingRequest request = bookingDAO.get(id);
-		roomService.unbookRoom(request.getRoomId());
+		Booking booking = bookings.remove(id);
+		if (booking == null) {
+			// made before a restart and recovered by the store, which keeps no payment
+			booking = Booking.of(bookingDAO.get(id));
+		}
+		BookingRequest request = booking.getKey().toRequest();
+		releaseRooms(request, booking.getRoomIds());
+		bookingIds.remove(booking.getKey(), id);
+		if (booking.getPaymentId() != null) {
+			paymentService.refund(booking.getPaymentId());
+		}
 		bookingDAO.delete(id);
+		if (waitlist != null) {
+			List<String> roomIds = booking.getRoomIds();
+			waitlistExecutor.execute(() -> {
+				for (String roomId : roomIds) {
+					bookFromWaitlist(roomId, request.getDateFrom(), request.getDateTo());
+				}
+			});
+		}
 	}
 
-	public BookingService(PaymentService paymentService, RoomService roomService, BookingDAO bookingDAO,
+	/**
+	 * Offers a freed room to the best waiting requests until one is booked into it.
+	 * Requests whose stay has already begun are dropped first. Requests the room cannot
+	 * be claimed for keep their place; any other outcome completes their entry.
+	 */
+	private void bookFromWaitlist(String roomId, LocalDate dateFrom, LocalDate dateTo) {
+		waitlist.expireBefore(LocalDate.now());
+		int capacity = roomService.getRoomCapacity(roomId);
+		List<Waitlist.Entry> stillWaiting = new ArrayList<>();
+		try {
+			for (int attempt = 0; attempt < MAX_WAITLIST_ATTEMPTS; attempt++) {
+				Waitlist.Entry entry = waitlist.poll(capacity, dateFrom, dateTo);
+				if (entry == null) {
+					return;
+				}
+				BookingRequest bookingRequest = entry.getBookingRequest();
+				BookingKey key = BookingKey.of(bookingRequest);
+				String existingId = bookingIds.get(key);
+				if (existingId != null) {
+					entry.getResult().complete(BookingResult.booked(bookingRequest, existingId));
+					continue;
+				}
+				if (!roomService.tryClaimRoom(roomId, bookingRequest)) {
+					stillWaiting.add(entry);
+					continue;
+				}
+				BookingResult result = bookClaimed(key, bookingRequest, roomId);
+				entry.getResult().complete(result);
+				if (result.isSuccess()) {
+					return;
+				}
+			}
+		} finally {
+			stillWaiting.forEach(waitlist::requeue);
+		}
+	}
+
+	private CompletableFuture<BookingResult> addToWaitlist(BookingRequest bookingRequest) {
+		return waitlist == null ? null : waitlist.add(bookingRequest);
+	}
+
+	public BookingService(PaymentService paymentService, RoomInventory roomService, BookingStore bookingDAO,
 			MailSender mailSender) {
 		super();
 		this.paymentService = paymentService;
@@ -63,4 +538,34 @@ public class BookingService {
 		this.mailSender = mailSender;
 	}
 
+	public void setPricingService(PricingService pricingService) {
+		this.pricingService = pricingService;
+	}
+
+	/**
+	 * Charges prepaid bookings through {@link PaymentService#payAsync}, and so through
+	 * the payment service's batched settlement if it has one, waiting for the charge to
+	 * settle. Concurrent bookings then share processor round-trips; a charge the
+	 * processor declines fails the booking like a rejected payment.
+	 */
+	public void setSettledPayments(boolean settledPayments) {
+		this.settledPayments = settledPayments;
+	}
+
+	/**
+	 * Requests that find no room are queued on {@code waitlist}, and cancellations book
+	 * the best waiting request for the freed room.
+	 */
+	public void setWaitlist(Waitlist waitlist) {
+		this.waitlist = waitlist;
+	}
+
+	/**
+	 * Runs the bookings a cancellation makes from the waitlist on {@code executor}, so
+	 * {@link #cancelBooking(String)} returns once the room is released.
+	 */
+	public void setWaitlistExecutor(Executor waitlistExecutor) {
+		this.waitlistExecutor = waitlistExecutor;
+	}
+
 }
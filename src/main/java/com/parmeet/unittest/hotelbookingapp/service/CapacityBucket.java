@@ -0,0 +1,193 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Rooms of one capacity with a lock-free free/booked bitmap. A set bit means
+ * the room in that slot is free; claiming a room is a CAS that clears its bit,
+ * so two threads can never claim the same slot. A counter of free slots is
+ * adjusted after every successful CAS.
+ * <p>
+ * Dated stays are indexed per night: each night with a stay has a bitmap whose
+ * set bits are the slots booked that night, so the rooms free for a stay are
+ * found word by word without visiting the room calendars. A night's bitmap is
+ * dropped when its last stay is released, so the index only holds booked nights.
+ */
+class CapacityBucket {
+
+	private final int capacity;
+	private final int[] handles;
+	private final AtomicLongArray free;
+	private final AtomicInteger freeCount;
+	private final Map<Long, NightStays> bookedByNight = new ConcurrentHashMap<>();
+
+	CapacityBucket(int capacity, int[] handles) {
+		this.capacity = capacity;
+		this.handles = handles;
+		this.free = new AtomicLongArray((handles.length + 63) >>> 6);
+		for (int slot = 0; slot < handles.length; slot++) {
+			free.set(slot >>> 6, free.get(slot >>> 6) | 1L << slot);
+		}
+		this.freeCount = new AtomicInteger(handles.length);
+	}
+
+	int getCapacity() {
+		return capacity;
+	}
+
+	int size() {
+		return handles.length;
+	}
+
+	int getFreeCount() {
+		return freeCount.get();
+	}
+
+	int handle(int slot) {
+		return handles[slot];
+	}
+
+	boolean isFree(int slot) {
+		return (free.get(slot >>> 6) & 1L << slot) != 0;
+	}
+
+	boolean claim(int slot) {
+		int index = slot >>> 6;
+		long bit = 1L << slot;
+		long word;
+		do {
+			word = free.get(index);
+			if ((word & bit) == 0) {
+				return false;
+			}
+		} while (!free.compareAndSet(index, word, word & ~bit));
+		freeCount.decrementAndGet();
+		return true;
+	}
+
+	boolean release(int slot) {
+		int index = slot >>> 6;
+		long bit = 1L << slot;
+		long word;
+		do {
+			word = free.get(index);
+			if ((word & bit) != 0) {
+				return false;
+			}
+		} while (!free.compareAndSet(index, word, word | bit));
+		freeCount.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * @return the first free slot at or after {@code fromSlot}, or -1 if there is none
+	 */
+	int nextFree(int fromSlot) {
+		if (fromSlot >= handles.length) {
+			return -1;
+		}
+		int index = fromSlot >>> 6;
+		long word = free.get(index) & -1L << fromSlot;
+		while (true) {
+			if (word != 0) {
+				return (index << 6) + Long.numberOfTrailingZeros(word);
+			}
+			if (++index == free.length()) {
+				return -1;
+			}
+			word = free.get(index);
+		}
+	}
+
+	/**
+	 * @return the first slot at or after {@code fromSlot} that is free and has no stay
+	 * on any night of [from, to), or -1 if there is none
+	 */
+	int nextFree(int fromSlot, long from, long to) {
+		if (fromSlot >= handles.length) {
+			return -1;
+		}
+		for (int index = fromSlot >>> 6; index < free.length(); index++) {
+			long word = free.get(index);
+			if (index == fromSlot >>> 6) {
+				word &= -1L << fromSlot;
+			}
+			for (long night = from; night < to && word != 0; night++) {
+				NightStays stays = bookedByNight.get(night);
+				if (stays != null) {
+					word &= ~stays.booked.get(index);
+				}
+			}
+			if (word != 0) {
+				return (index << 6) + Long.numberOfTrailingZeros(word);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * A slot with a stay tonight or later is never taken open-ended, so from tonight on
+	 * the free slots without a stay are the free count less the night's stays.
+	 *
+	 * @return the number of free slots without a stay on the given night
+	 */
+	int getFreeCount(long night) {
+		NightStays stays = bookedByNight.get(night);
+		return stays == null ? freeCount.get() : freeCount.get() - stays.count;
+	}
+
+	boolean isBooked(int slot, long night) {
+		NightStays stays = bookedByNight.get(night);
+		return stays != null && (stays.booked.get(slot >>> 6) & 1L << slot) != 0;
+	}
+
+	int getBookedNightCount() {
+		return bookedByNight.size();
+	}
+
+	/**
+	 * Marks the nights [from, to) of the slot as booked or free again. Callers keep
+	 * this in step with the room calendar by holding the calendar's lock. Each night
+	 * is updated inside the map's per-key compute, so a night emptied by one room is
+	 * never dropped while another room books it.
+	 */
+	void markStay(int slot, long from, long to, boolean booked) {
+		int index = slot >>> 6;
+		long bit = 1L << slot;
+		for (long night = from; night < to; night++) {
+			bookedByNight.compute(night, (key, stays) -> {
+				if (stays == null) {
+					if (!booked) {
+						return null;
+					}
+					stays = new NightStays(free.length());
+				}
+				long word = stays.booked.get(index);
+				if (booked != ((word & bit) != 0)) {
+					stays.booked.set(index, word ^ bit);
+					stays.count += booked ? 1 : -1;
+				}
+				return stays.count == 0 ? null : stays;
+			});
+		}
+	}
+
+	/**
+	 * The slots booked on one night. Only written inside the map's compute for that
+	 * night; read without locking.
+	 */
+	private static final class NightStays {
+
+		private final AtomicLongArray booked;
+		private volatile int count;
+
+		private NightStays(int words) {
+			this.booked = new AtomicLongArray(words);
+		}
+
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+/**
+ * Splits a party over room sizes with a depth-first branch and bound. Rooms of equal
+ * capacity are interchangeable, so the search only decides how many rooms to take of
+ * each size; thousands of free rooms still make a tree a few levels deep. A solution
+ * is better if it uses fewer rooms, then if it leaves fewer beds empty.
+ * <p>
+ * The largest-first choice is explored first and is always feasible when any solution
+ * is, so the deadline only ever trades optimality for time, never an answer.
+ */
+final class GroupAllocator {
+
+	private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+	private final int[] capacities;
+	private final int[] available;
+	private final long[] bedsFrom;
+	private final long deadlineNanos;
+	private final int[] counts;
+	private int[] best;
+	private int bestRooms = Integer.MAX_VALUE;
+	private long bestWaste = Long.MAX_VALUE;
+	private int nodes;
+	private boolean expired;
+
+	private GroupAllocator(int[] capacities, int[] available, long deadlineNanos) {
+		this.capacities = capacities;
+		this.available = available;
+		this.deadlineNanos = deadlineNanos;
+		this.counts = new int[capacities.length];
+		this.bedsFrom = new long[capacities.length + 1];
+		for (int level = capacities.length - 1; level >= 0; level--) {
+			bedsFrom[level] = bedsFrom[level + 1] + (long) capacities[level] * available[level];
+		}
+	}
+
+	/**
+	 * @param capacities room sizes in descending order
+	 * @param available  free rooms of each size
+	 * @return rooms to take of each size, or {@code null} if the party is empty or does
+	 * not fit
+	 */
+	static int[] allocate(int guestCount, int[] capacities, int[] available, long deadlineNanos) {
+		if (guestCount <= 0) {
+			return null;
+		}
+		GroupAllocator allocator = new GroupAllocator(capacities, available, deadlineNanos);
+		if (guestCount > allocator.bedsFrom[0]) {
+			return null;
+		}
+		allocator.search(0, guestCount, 0);
+		return allocator.best;
+	}
+
+	private void search(int level, long remaining, int rooms) {
+		if (remaining <= 0) {
+			long waste = -remaining;
+			if (rooms < bestRooms || rooms == bestRooms && waste < bestWaste) {
+				best = counts.clone();
+				bestRooms = rooms;
+				bestWaste = waste;
+			}
+			return;
+		}
+		if (level == capacities.length || remaining > bedsFrom[level] || isExpired()) {
+			return;
+		}
+		int capacity = capacities[level];
+		// the largest remaining size is the best case for every further room
+		long minRooms = rooms + (remaining + capacity - 1) / capacity;
+		if (minRooms > bestRooms) {
+			return;
+		}
+		int maxCount = (int) Math.min(available[level], (remaining + capacity - 1) / capacity);
+		for (int count = maxCount; count >= 0 && !expired; count--) {
+			counts[level] = count;
+			search(level + 1, remaining - (long) count * capacity, rooms + count);
+		}
+		counts[level] = 0;
+	}
+
+	private boolean isExpired() {
+		if (!expired && best != null && ++nodes % DEADLINE_CHECK_INTERVAL == 0) {
+			expired = System.nanoTime() - deadlineNanos > 0;
+		}
+		return expired;
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+/**
+ * Outcome of {@link PaymentService#charge(com.parmeet.unittest.hotelbookingapp.model.BookingRequest, double)}:
+ * the payment id if the charge went through, otherwise the rule that rejected it, both
+ * taken from the same evaluation of the payment rules.
+ */
+public final class PaymentResult {
+
+	private final String paymentId;
+	private final int ruleCode;
+	private final String ruleName;
+
+	private PaymentResult(String paymentId, int ruleCode, String ruleName) {
+		this.paymentId = paymentId;
+		this.ruleCode = ruleCode;
+		this.ruleName = ruleName;
+	}
+
+	public static PaymentResult accepted(String paymentId) {
+		return new PaymentResult(paymentId, PaymentRules.ACCEPTED, null);
+	}
+
+	public static PaymentResult rejected(int ruleCode, String ruleName) {
+		return new PaymentResult(null, ruleCode, ruleName);
+	}
+
+	public boolean isAccepted() {
+		return ruleCode == PaymentRules.ACCEPTED;
+	}
+
+	/**
+	 * @return the payment id, or {@code null} if the payment was rejected
+	 */
+	public String getPaymentId() {
+		return paymentId;
+	}
+
+	/**
+	 * @return {@link PaymentRules#ACCEPTED} or the code of the rule rejecting the payment
+	 */
+	public int getRuleCode() {
+		return ruleCode;
+	}
+
+	/**
+	 * @return the name of the rule rejecting the payment, or {@code null} if accepted
+	 */
+	public String getRuleName() {
+		return ruleName;
+	}
+
+	@Override
+	public String toString() {
+		return isAccepted() ? "PaymentResult [paymentId=" + paymentId + "]" : "PaymentResult [rule=" + ruleName + "]";
+	}
+
+}
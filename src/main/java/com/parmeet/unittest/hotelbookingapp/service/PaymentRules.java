@@ -0,0 +1,166 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Payment limits compiled from rule definitions such as
+ * <pre>
+ * # name = condition [and condition]...
+ * small-payments-only = price > 200 and guestCount < 3
+ * </pre>
+ * A payment is rejected by the first rule whose conditions all hold. Fields are
+ * {@code price}, {@code guestCount}, {@code nights} and {@code prepaid} (1 or 0);
+ * operators are {@code < <= > >= == !=}. Conditions are flattened into parallel
+ * arrays, so evaluation is a loop over primitives without allocation.
+ */
+public class PaymentRules {
+
+	public static final int ACCEPTED = 0;
+
+	private static final String[] FIELDS = {"price", "guestCount", "nights", "prepaid"};
+	private static final String[] OPERATORS = {"<", "<=", ">", ">=", "==", "!="};
+
+	private final String[] ruleNames;
+	private final int[] ruleEnds;
+	private final int[] fields;
+	private final int[] operators;
+	private final double[] thresholds;
+
+	private PaymentRules(String[] ruleNames, int[] ruleEnds, int[] fields, int[] operators, double[] thresholds) {
+		this.ruleNames = ruleNames;
+		this.ruleEnds = ruleEnds;
+		this.fields = fields;
+		this.operators = operators;
+		this.thresholds = thresholds;
+	}
+
+	public static PaymentRules defaults() {
+		return parse("small-payments-only = price > 200 and guestCount < 3");
+	}
+
+	public static PaymentRules load(Path file) {
+		try {
+			return parse(Files.readString(file));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public static PaymentRules parse(String definitions) {
+		List<String> ruleNames = new ArrayList<>();
+		List<Integer> ruleEnds = new ArrayList<>();
+		List<Integer> fields = new ArrayList<>();
+		List<Integer> operators = new ArrayList<>();
+		List<Double> thresholds = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new StringReader(definitions))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				int separator = line.indexOf('=');
+				if (separator <= 0) {
+					throw new IllegalArgumentException("Invalid payment rule: " + line);
+				}
+				ruleNames.add(line.substring(0, separator).trim());
+				for (String condition : line.substring(separator + 1).trim().split("\\s+and\\s+")) {
+					String[] parts = condition.trim().split("\\s+");
+					if (parts.length != 3) {
+						throw new IllegalArgumentException("Invalid condition '" + condition + "' in rule: " + line);
+					}
+					fields.add(indexOf(FIELDS, parts[0], line));
+					operators.add(indexOf(OPERATORS, parts[1], line));
+					thresholds.add(Double.parseDouble(parts[2]));
+				}
+				ruleEnds.add(fields.size());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return new PaymentRules(ruleNames.toArray(new String[0]),
+				ruleEnds.stream().mapToInt(Integer::intValue).toArray(),
+				fields.stream().mapToInt(Integer::intValue).toArray(),
+				operators.stream().mapToInt(Integer::intValue).toArray(),
+				thresholds.stream().mapToDouble(Double::doubleValue).toArray());
+	}
+
+	/**
+	 * @return {@link #ACCEPTED}, or the 1-based number of the first rule that rejects the payment
+	 */
+	public int evaluate(double price, int guestCount, long nights, boolean prepaid) {
+		int condition = 0;
+		for (int rule = 0; rule < ruleEnds.length; rule++) {
+			int end = ruleEnds[rule];
+			boolean matches = true;
+			for (; condition < end; condition++) {
+				if (!holds(condition, price, guestCount, nights, prepaid)) {
+					matches = false;
+					condition = end;
+					break;
+				}
+			}
+			if (matches) {
+				return rule + 1;
+			}
+		}
+		return ACCEPTED;
+	}
+
+	public String getRuleName(int resultCode) {
+		return resultCode == ACCEPTED ? null : ruleNames[resultCode - 1];
+	}
+
+	public int getRuleCount() {
+		return ruleNames.length;
+	}
+
+	private boolean holds(int condition, double price, int guestCount, long nights, boolean prepaid) {
+		double value;
+		switch (fields[condition]) {
+			case 0:
+				value = price;
+				break;
+			case 1:
+				value = guestCount;
+				break;
+			case 2:
+				value = nights;
+				break;
+			default:
+				value = prepaid ? 1 : 0;
+		}
+		double threshold = thresholds[condition];
+		switch (operators[condition]) {
+			case 0:
+				return value < threshold;
+			case 1:
+				return value <= threshold;
+			case 2:
+				return value > threshold;
+			case 3:
+				return value >= threshold;
+			case 4:
+				return value == threshold;
+			default:
+				return value != threshold;
+		}
+	}
+
+	private static int indexOf(String[] names, String name, String line) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Unknown '" + name + "' in payment rule: " + line);
+	}
+
+}
@@ -1,22 +1,231 @@
 package com.parmeet.unittest.hotelbookingapp.service;
 
+import com.parmeet.unittest.hotelbookingapp.exception.PaymentRejectedException;
+import com.parmeet.unittest.hotelbookingapp.model.BookingKey;
 import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import com.parmeet.unittest.hotelbookingapp.util.Currency;
+import com.parmeet.unittest.hotelbookingapp.util.CurrencyConverter;
+import com.parmeet.unittest.hotelbookingapp.util.Money;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class PaymentService {
 
-	private final Map<String, Double> payments = new HashMap<>();
+	private final Map<BookingKey, Payment> payments = new ConcurrentHashMap<>();
+	private final Map<String, Payment> paymentsById = new ConcurrentHashMap<>();
+	private final AtomicLong paymentSequence = new AtomicLong();
+	private final Map<BookingKey, CompletableFuture<String>> settlements = new ConcurrentHashMap<>();
+	private final PaymentSettlement settlement;
+	private volatile PaymentRules rules = PaymentRules.defaults();
 
+	public PaymentService() {
+		this(null);
+	}
+
+	public PaymentService(PaymentSettlement settlement) {
+		this.settlement = settlement;
+	}
+
+	/**
+	 * Charges the booking once. Paying again for the same booking request, e.g. a retried
+	 * {@code makeBooking}, returns the id of the existing payment instead of charging twice.
+	 *
+	 * @throws PaymentRejectedException if a payment rule rejects the payment
+	 */
 	public String pay(BookingRequest bookingRequest, double price) {
-		if (price > 200.0 && bookingRequest.getGuestCount() < 3) {
-			throw new UnsupportedOperationException("Only small payments are supported.");
+		return payMinor(bookingRequest, toMinorUnits(price));
+	}
+
+	/**
+	 * Exact variant of {@link #pay(BookingRequest, double)}. Payments are recorded in US
+	 * cents, so other currencies are converted first.
+	 */
+	public String pay(BookingRequest bookingRequest, Money price) {
+		return payMinor(bookingRequest, toUsdMinor(price));
+	}
+
+	private String payMinor(BookingRequest bookingRequest, long priceMinor) {
+		PaymentRules currentRules = rules;
+		int resultCode = check(currentRules, bookingRequest, priceMinor);
+		if (resultCode != PaymentRules.ACCEPTED) {
+			throw new PaymentRejectedException(resultCode, currentRules.getRuleName(resultCode));
+		}
+		return record(bookingRequest, priceMinor);
+	}
+
+	/**
+	 * Non-throwing variant of {@link #pay(BookingRequest, double)}.
+	 *
+	 * @return the payment id, or {@code null} if a payment rule rejected the payment
+	 */
+	public String tryPay(BookingRequest bookingRequest, double price) {
+		return charge(bookingRequest, price).getPaymentId();
+	}
+
+	/**
+	 * Non-throwing variant of {@link #pay(BookingRequest, double)} that also reports which
+	 * rule rejected the payment. The rules are evaluated once, so the result stays
+	 * consistent even if {@link #setRules(PaymentRules)} runs concurrently.
+	 */
+	public PaymentResult charge(BookingRequest bookingRequest, double price) {
+		long priceMinor = toMinorUnits(price);
+		PaymentRules currentRules = rules;
+		int resultCode = check(currentRules, bookingRequest, priceMinor);
+		if (resultCode != PaymentRules.ACCEPTED) {
+			return PaymentResult.rejected(resultCode, currentRules.getRuleName(resultCode));
+		}
+		return PaymentResult.accepted(record(bookingRequest, priceMinor));
+	}
+
+	/**
+	 * @return {@link PaymentRules#ACCEPTED} or the code of the rule rejecting the payment
+	 */
+	public int check(BookingRequest bookingRequest, double price) {
+		return check(rules, bookingRequest, toMinorUnits(price));
+	}
+
+	public PaymentRules getRules() {
+		return rules;
+	}
+
+	public void setRules(PaymentRules rules) {
+		this.rules = rules;
+	}
+
+	private String record(BookingRequest bookingRequest, long priceMinor) {
+		return payments.computeIfAbsent(BookingKey.of(bookingRequest),
+				key -> index(new Payment(key, Long.toString(paymentSequence.incrementAndGet()), priceMinor)))
+				.id;
+	}
+
+	private Payment index(Payment payment) {
+		paymentsById.put(payment.id, payment);
+		return payment;
+	}
+
+	/**
+	 * Submits the charge to the batched settlement, or pays synchronously when no
+	 * settlement is configured. A request already paid completes with its payment id,
+	 * retries while the charge is in flight share it, and a failed charge can be
+	 * retried.
+	 */
+	public CompletableFuture<String> payAsync(BookingRequest bookingRequest, double price) {
+		return payAsyncMinor(bookingRequest, toMinorUnits(price));
+	}
+
+	public CompletableFuture<String> payAsync(BookingRequest bookingRequest, Money price) {
+		return payAsyncMinor(bookingRequest, toUsdMinor(price));
+	}
+
+	private CompletableFuture<String> payAsyncMinor(BookingRequest bookingRequest, long priceMinor) {
+		if (settlement == null) {
+			return CompletableFuture.completedFuture(payMinor(bookingRequest, priceMinor));
+		}
+		BookingKey key = BookingKey.of(bookingRequest);
+		Payment payment = payments.get(key);
+		if (payment != null) {
+			return CompletableFuture.completedFuture(payment.id);
+		}
+		PaymentRules currentRules = rules;
+		int resultCode = check(currentRules, bookingRequest, priceMinor);
+		if (resultCode != PaymentRules.ACCEPTED) {
+			throw new PaymentRejectedException(resultCode, currentRules.getRuleName(resultCode));
+		}
+		CompletableFuture<String> recorded = new CompletableFuture<>();
+		CompletableFuture<String> inFlight = settlements.putIfAbsent(key, recorded);
+		if (inFlight != null) {
+			return inFlight;
+		}
+		settlement.submit(key.toString(), priceMinor).whenComplete((reference, failure) -> {
+			// record before forgetting the settlement, so a retry always finds one of them,
+			// and complete last, so callers see the payment in the ledger
+			if (failure == null) {
+				payments.computeIfAbsent(key, k -> index(new Payment(k, reference, priceMinor)));
+			}
+			settlements.remove(key, recorded);
+			if (failure == null) {
+				recorded.complete(reference);
+			} else {
+				recorded.completeExceptionally(failure);
+			}
+		});
+		return recorded;
+	}
+
+	public boolean isPaid(BookingRequest bookingRequest) {
+		return payments.containsKey(BookingKey.of(bookingRequest));
+	}
+
+	/**
+	 * Refunds the payment with the given id. Only that payment is removed, so refunding
+	 * a stale id never touches a later payment for the same booking request.
+	 *
+	 * @return {@code false} if there is no such payment, e.g. it was already refunded
+	 */
+	public boolean refund(String paymentId) {
+		Payment payment = paymentsById.remove(paymentId);
+		if (payment == null) {
+			return false;
+		}
+		payments.remove(payment.key, payment);
+		return true;
+	}
+
+	/**
+	 * @return the number of charges submitted to the settlement and not completed yet
+	 */
+	public int getPendingSettlementCount() {
+		return settlements.size();
+	}
+
+	public long getPaidAmountMinor(BookingRequest bookingRequest) {
+		Payment payment = payments.get(BookingKey.of(bookingRequest));
+		return payment == null ? 0 : payment.amountMinor;
+	}
+
+	public Money getPaidAmount(BookingRequest bookingRequest) {
+		return Money.ofMinor(getPaidAmountMinor(bookingRequest), Currency.USD);
+	}
+
+	/**
+	 * Identifies a booking request independently of its room assignment, which is set
+	 * after payment and must not change the key.
+	 */
+	public static String idempotencyKey(BookingRequest bookingRequest) {
+		return BookingKey.of(bookingRequest).toString();
+	}
+
+	private static int check(PaymentRules rules, BookingRequest bookingRequest, long priceMinor) {
+		long nights = bookingRequest.getDateFrom() == null || bookingRequest.getDateTo() == null
+				? 0
+				: bookingRequest.getDateTo().toEpochDay() - bookingRequest.getDateFrom().toEpochDay();
+		return rules.evaluate(Money.toMajorUnits(priceMinor, Currency.USD), bookingRequest.getGuestCount(), nights, bookingRequest.isPrepaid());
+	}
+
+	static long toMinorUnits(double amount) {
+		return Money.toMinorUnits(amount, Currency.USD);
+	}
+
+	private static long toUsdMinor(Money price) {
+		return price.getCurrency() == Currency.USD
+				? price.getAmountMinor()
+				: CurrencyConverter.convert(price, Currency.USD).getAmountMinor();
+	}
+
+	private static final class Payment {
+
+		private final BookingKey key;
+		private final String id;
+		private final long amountMinor;
+
+		private Payment(BookingKey key, String id, long amountMinor) {
+			this.key = key;
+			this.id = id;
+			this.amountMinor = amountMinor;
 		}
-		String id = UUID.randomUUID().toString();
-		payments.put(id, price);
-		return id;
 	}
 
 }
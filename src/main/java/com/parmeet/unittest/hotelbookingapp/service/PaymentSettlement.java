@@ -0,0 +1,130 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import com.parmeet.unittest.hotelbookingapp.exception.PaymentRejectedException;
+import com.parmeet.unittest.hotelbookingapp.external.PaymentCharge;
+import com.parmeet.unittest.hotelbookingapp.external.PaymentProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects charges into micro-batches and settles each batch in one
+ * {@link PaymentProcessor} call. A batch goes out when it reaches the maximum size or
+ * when the window since its first charge has passed, whichever comes first. Every
+ * charge gets its own future; declined charges fail with a
+ * {@link PaymentRejectedException} whose code is {@link PaymentRejectedException#DECLINED}.
+ */
+public class PaymentSettlement implements AutoCloseable {
+
+	private final PaymentProcessor processor;
+	private final int maxBatchSize;
+	private final long windowMillis;
+	private final ScheduledExecutorService executor;
+
+	private final Object lock = new Object();
+	private List<CompletableFuture<String>> futures;
+	private List<PaymentCharge> charges;
+	private ScheduledFuture<?> windowTimer;
+
+	public PaymentSettlement(PaymentProcessor processor, int maxBatchSize, long windowMillis, int concurrency) {
+		this.processor = processor;
+		this.maxBatchSize = maxBatchSize;
+		this.windowMillis = windowMillis;
+		this.executor = Executors.newScheduledThreadPool(concurrency, runnable -> {
+			Thread thread = new Thread(runnable, "payment-settlement");
+			thread.setDaemon(true);
+			return thread;
+		});
+		newBatch();
+	}
+
+	public CompletableFuture<String> submit(String idempotencyKey, long amountMinor) {
+		CompletableFuture<String> future = new CompletableFuture<>();
+		List<PaymentCharge> fullCharges = null;
+		List<CompletableFuture<String>> fullFutures = null;
+		synchronized (lock) {
+			charges.add(new PaymentCharge(idempotencyKey, amountMinor));
+			futures.add(future);
+			if (charges.size() >= maxBatchSize) {
+				cancelWindow();
+				fullCharges = charges;
+				fullFutures = futures;
+				newBatch();
+			} else if (charges.size() == 1) {
+				windowTimer = executor.schedule(this::flushWindow, windowMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+		if (fullCharges != null) {
+			List<PaymentCharge> batchCharges = fullCharges;
+			List<CompletableFuture<String>> batchFutures = fullFutures;
+			executor.execute(() -> settle(batchCharges, batchFutures));
+		}
+		return future;
+	}
+
+	/**
+	 * Settles the pending batch now and waits for in-flight batches.
+	 */
+	@Override
+	public void close() {
+		flushWindow();
+		executor.shutdown();
+		try {
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void flushWindow() {
+		List<PaymentCharge> batchCharges;
+		List<CompletableFuture<String>> batchFutures;
+		synchronized (lock) {
+			if (charges.isEmpty()) {
+				return;
+			}
+			cancelWindow();
+			batchCharges = charges;
+			batchFutures = futures;
+			newBatch();
+		}
+		settle(batchCharges, batchFutures);
+	}
+
+	private void settle(List<PaymentCharge> batchCharges, List<CompletableFuture<String>> batchFutures) {
+		List<String> references;
+		try {
+			references = processor.settle(batchCharges);
+		} catch (RuntimeException e) {
+			batchFutures.forEach(future -> future.completeExceptionally(e));
+			return;
+		}
+		for (int i = 0; i < batchFutures.size(); i++) {
+			String reference = i < references.size() ? references.get(i) : null;
+			if (reference == null) {
+				batchFutures.get(i).completeExceptionally(new PaymentRejectedException(PaymentRejectedException.DECLINED,
+						"Charge " + batchCharges.get(i).getIdempotencyKey() + " declined by the payment processor"));
+			} else {
+				batchFutures.get(i).complete(reference);
+			}
+		}
+	}
+
+	private void cancelWindow() {
+		if (windowTimer != null) {
+			windowTimer.cancel(false);
+			windowTimer = null;
+		}
+	}
+
+	private void newBatch() {
+		charges = new ArrayList<>(maxBatchSize);
+		futures = new ArrayList<>(maxBatchSize);
+	}
+
+}
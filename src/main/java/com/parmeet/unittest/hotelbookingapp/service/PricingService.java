@@ -0,0 +1,68 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import com.parmeet.unittest.hotelbookingapp.model.Room;
+import com.parmeet.unittest.hotelbookingapp.util.Currency;
+import com.parmeet.unittest.hotelbookingapp.util.Money;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class PricingService {
+
+	public static final String DEFAULT_ROOM_TYPE = Room.DEFAULT_TYPE;
+
+	private static final double BASE_PRICE_USD = 50.0;
+
+	private final Map<String, RateTable> rateTables = new ConcurrentHashMap<>();
+
+	public PricingService() {
+		this(RateTable.flat(BASE_PRICE_USD));
+	}
+
+	public PricingService(RateTable defaultRateTable) {
+		rateTables.put(DEFAULT_ROOM_TYPE, defaultRateTable);
+	}
+
+	public void setRateTable(String roomType, RateTable rateTable) {
+		rateTables.put(roomType, rateTable);
+	}
+
+	public double calculatePrice(BookingRequest bookingRequest) {
+		return calculatePrice(DEFAULT_ROOM_TYPE, bookingRequest);
+	}
+
+	/**
+	 * Prices the stay with the rates of {@code roomType}, or with the default rates if the
+	 * type is {@code null} or has no rates of its own.
+	 */
+	public double calculatePrice(String roomType, BookingRequest bookingRequest) {
+		return calculatePrice(roomType, bookingRequest, bookingRequest.getGuestCount());
+	}
+
+	/**
+	 * Prices the stay of {@code guestCount} of the request's guests, e.g. those sharing
+	 * one room of a group booking.
+	 */
+	public double calculatePrice(String roomType, BookingRequest bookingRequest, int guestCount) {
+		RateTable rateTable = roomType == null ? null : rateTables.get(roomType);
+		if (rateTable == null) {
+			rateTable = rateTables.get(DEFAULT_ROOM_TYPE);
+		}
+		return rateTable.total(bookingRequest.getDateFrom().toEpochDay(), bookingRequest.getDateTo().toEpochDay())
+				* guestCount;
+	}
+
+	/**
+	 * Exact variant of {@link #calculatePrice(BookingRequest)}: the stay total in US dollars,
+	 * rounded once to whole cents.
+	 */
+	public Money quote(BookingRequest bookingRequest) {
+		return quote(DEFAULT_ROOM_TYPE, bookingRequest);
+	}
+
+	public Money quote(String roomType, BookingRequest bookingRequest) {
+		return Money.of(calculatePrice(roomType, bookingRequest), Currency.USD);
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Nightly per-guest rates of one room type: a base rate, seasonal overrides for date
+ * ranges (later seasons win where they overlap) and an uplift for Friday and Saturday
+ * nights. Compile it into a {@link RateTable} to price stays.
+ */
+public class RatePlan {
+
+	private final double baseRate;
+	private final List<Season> seasons = new ArrayList<>();
+	private double weekendUplift;
+
+	public RatePlan(double baseRate) {
+		this.baseRate = baseRate;
+	}
+
+	public RatePlan season(LocalDate from, LocalDate to, double rate) {
+		seasons.add(new Season(from.toEpochDay(), to.toEpochDay(), rate));
+		return this;
+	}
+
+	/**
+	 * @param uplift fraction added to Friday and Saturday nights, e.g. 0.2 for +20%
+	 */
+	public RatePlan weekendUplift(double uplift) {
+		this.weekendUplift = uplift;
+		return this;
+	}
+
+	public double getBaseRate() {
+		return baseRate;
+	}
+
+	public double getWeekendUplift() {
+		return weekendUplift;
+	}
+
+	List<Season> getSeasons() {
+		return seasons;
+	}
+
+	static final class Season {
+
+		final long from;
+		final long to;
+		final double rate;
+
+		private Season(long from, long to, double rate) {
+			this.from = from;
+			this.to = to;
+			this.rate = rate;
+		}
+	}
+
+}
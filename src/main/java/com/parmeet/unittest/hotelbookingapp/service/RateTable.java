@@ -0,0 +1,96 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * A {@link RatePlan} compiled over a window of nights into prefix sums indexed by epoch
+ * day, so the price of any stay is one subtraction regardless of its length. Nights
+ * outside the window are charged the plan's base rate, with the weekend uplift on
+ * Friday and Saturday nights.
+ */
+public class RateTable {
+
+	// epoch day 0 was a Thursday, so day + 3 counts from a Monday
+	private static final int EPOCH_DAY_OF_WEEK_OFFSET = 3;
+	private static final int FRIDAY = DayOfWeek.FRIDAY.ordinal();
+
+	private final double baseRate;
+	private final double weekendUplift;
+	private final long firstDay;
+	private final double[] prefix;
+
+	private RateTable(double baseRate, double weekendUplift, long firstDay, double[] prefix) {
+		this.baseRate = baseRate;
+		this.weekendUplift = weekendUplift;
+		this.firstDay = firstDay;
+		this.prefix = prefix;
+	}
+
+	public static RateTable flat(double rate) {
+		return new RateTable(rate, 0, 0, new double[1]);
+	}
+
+	public static RateTable compile(RatePlan plan, LocalDate windowFrom, LocalDate windowTo) {
+		long firstDay = windowFrom.toEpochDay();
+		int nights = Math.toIntExact(windowTo.toEpochDay() - firstDay);
+		double[] rates = new double[nights];
+		Arrays.fill(rates, plan.getBaseRate());
+		for (RatePlan.Season season : plan.getSeasons()) {
+			long from = Math.max(season.from, firstDay);
+			long to = Math.min(season.to, firstDay + nights);
+			for (long day = from; day < to; day++) {
+				rates[(int) (day - firstDay)] = season.rate;
+			}
+		}
+		double[] prefix = new double[nights + 1];
+		for (int i = 0; i < nights; i++) {
+			DayOfWeek dayOfWeek = LocalDate.ofEpochDay(firstDay + i).getDayOfWeek();
+			boolean weekend = dayOfWeek == DayOfWeek.FRIDAY || dayOfWeek == DayOfWeek.SATURDAY;
+			prefix[i + 1] = prefix[i] + rates[i] * (weekend ? 1 + plan.getWeekendUplift() : 1);
+		}
+		return new RateTable(plan.getBaseRate(), plan.getWeekendUplift(), firstDay, prefix);
+	}
+
+	/**
+	 * @return the per-guest price of the nights {@code [fromDay, toDay)}
+	 */
+	public double total(long fromDay, long toDay) {
+		if (toDay <= fromDay) {
+			return 0;
+		}
+		long lastDay = firstDay + prefix.length - 1;
+		long from = Math.min(Math.max(fromDay, firstDay), lastDay);
+		long to = Math.min(Math.max(toDay, firstDay), lastDay);
+		double inWindow = prefix[(int) (to - firstDay)] - prefix[(int) (from - firstDay)];
+		long outsideNights = (toDay - fromDay) - (to - from);
+		long outsideWeekendNights = weekendNights(fromDay, Math.min(toDay, firstDay))
+				+ weekendNights(Math.max(fromDay, lastDay), toDay);
+		return inWindow + baseRate * (outsideNights + weekendUplift * outsideWeekendNights);
+	}
+
+	/**
+	 * @return the number of Friday and Saturday nights in {@code [fromDay, toDay)}
+	 */
+	private static long weekendNights(long fromDay, long toDay) {
+		if (toDay <= fromDay) {
+			return 0;
+		}
+		long nights = toDay - fromDay;
+		long count = nights / 7 * 2;
+		int dayOfWeek = (int) Math.floorMod(fromDay + EPOCH_DAY_OF_WEEK_OFFSET, 7L);
+		for (int i = 0; i < nights % 7; i++) {
+			int day = (dayOfWeek + i) % 7;
+			if (day == FRIDAY || day == FRIDAY + 1) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	public double nightlyRate(long epochDay) {
+		return total(epochDay, epochDay + 1);
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Booked stays of a single room as non-overlapping half-open intervals
+ * [from, to) of epoch days, ordered by start day.
+ * Methods synchronize on the calendar, so a check-and-book never races with
+ * another booking of the same room while other rooms stay uncontended.
+ */
+public class RoomCalendar {
+
+	public static final long OPEN = Integer.MAX_VALUE;
+
+	private final TreeMap<Long, Long> stays = new TreeMap<>();
+
+	public synchronized boolean isFree(long from, long to) {
+		if (from >= to) {
+			return false;
+		}
+		Map.Entry<Long, Long> before = stays.floorEntry(from);
+		if (before != null && before.getValue() > from) {
+			return false;
+		}
+		Long next = stays.ceilingKey(from);
+		return next == null || next >= to;
+	}
+
+	public synchronized boolean book(long from, long to) {
+		if (!isFree(from, to)) {
+			return false;
+		}
+		stays.put(from, to);
+		return true;
+	}
+
+	/**
+	 * @return the free nights left between the stay and its neighbouring stays, with
+	 * {@link #OPEN} for a side without a neighbour, or -1 if the stay does not fit
+	 */
+	public synchronized long getSlack(long from, long to) {
+		if (!isFree(from, to)) {
+			return -1;
+		}
+		Map.Entry<Long, Long> before = stays.floorEntry(from);
+		Long after = stays.ceilingKey(to);
+		return (before == null ? OPEN : from - before.getValue())
+				+ (after == null ? OPEN : after - to);
+	}
+
+	/**
+	 * @return whether a stay ends after {@code day}, i.e. the room is booked that night
+	 * or later
+	 */
+	public synchronized boolean hasStayAfter(long day) {
+		Map.Entry<Long, Long> last = stays.lastEntry();
+		return last != null && last.getValue() > day;
+	}
+
+	public synchronized boolean release(long from, long to) {
+		return stays.remove(from, to);
+	}
+
+	public synchronized int getStayCount() {
+		return stays.size();
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import com.parmeet.unittest.hotelbookingapp.util.TimingWheel;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A room taken for a booking request while checkout completes. The hold ends exactly
+ * once: confirmed, released, or expired by the {@link RoomInventory}'s timer.
+ */
+public class RoomHold {
+
+	static final int HELD = 0;
+	static final int CONFIRMED = 1;
+	static final int RELEASED = 2;
+	static final int EXPIRED = 3;
+
+	private final String roomId;
+	private final BookingRequest bookingRequest;
+	private final AtomicInteger state = new AtomicInteger(HELD);
+	private volatile TimingWheel.Timeout expiry;
+
+	RoomHold(String roomId, BookingRequest bookingRequest) {
+		this.roomId = roomId;
+		this.bookingRequest = bookingRequest;
+	}
+
+	public String getRoomId() {
+		return roomId;
+	}
+
+	public BookingRequest getBookingRequest() {
+		return bookingRequest;
+	}
+
+	public boolean isHeld() {
+		return state.get() == HELD;
+	}
+
+	public boolean isConfirmed() {
+		return state.get() == CONFIRMED;
+	}
+
+	public boolean isExpired() {
+		return state.get() == EXPIRED;
+	}
+
+	void setExpiry(TimingWheel.Timeout expiry) {
+		this.expiry = expiry;
+	}
+
+	/**
+	 * Moves the hold out of {@link #HELD} and cancels its expiry.
+	 *
+	 * @return false if the hold had already ended
+	 */
+	boolean end(int newState) {
+		if (!state.compareAndSet(HELD, newState)) {
+			return false;
+		}
+		TimingWheel.Timeout timeout = expiry;
+		if (timeout != null && newState != EXPIRED) {
+			timeout.cancel();
+		}
+		return true;
+	}
+
+}
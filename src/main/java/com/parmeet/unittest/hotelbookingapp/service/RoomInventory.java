@@ -0,0 +1,210 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import com.parmeet.unittest.hotelbookingapp.exception.BusinessException;
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import com.parmeet.unittest.hotelbookingapp.model.Room;
+import com.parmeet.unittest.hotelbookingapp.util.TimingWheel;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The rooms a {@link BookingService} books from: one {@link RoomService}, or a
+ * {@link ShardedRoomService} spreading the rooms over several.
+ * <p>
+ * Undated requests take a room open-ended from today, dated requests book the stay in
+ * the room's calendar, and the two never share a room. The availability counters count
+ * the rooms available on a night from tonight on; the variants without a night count
+ * tonight.
+ */
+public interface RoomInventory extends AutoCloseable {
+
+	long DEFAULT_GROUP_BUDGET_NANOS = 5_000_000;
+
+	default String findAvailableRoomId(BookingRequest bookingRequest) {
+		String roomId = tryFindAvailableRoomId(bookingRequest);
+		if (roomId == null) {
+			throw BusinessException.NO_ROOM_AVAILABLE;
+		}
+		return roomId;
+	}
+
+	/**
+	 * Non-throwing variant of {@link #findAvailableRoomId(BookingRequest)}.
+	 *
+	 * @return the room id, or {@code null} if no room is available
+	 */
+	String tryFindAvailableRoomId(BookingRequest bookingRequest);
+
+	/**
+	 * Finds a room for the request and books it in one atomic step, so concurrent
+	 * callers never get the same room.
+	 *
+	 * @return the id of the claimed room
+	 */
+	default String claimRoom(BookingRequest bookingRequest) {
+		String roomId = tryClaimRoom(bookingRequest);
+		if (roomId == null) {
+			throw BusinessException.NO_ROOM_AVAILABLE;
+		}
+		return roomId;
+	}
+
+	/**
+	 * Non-throwing variant of {@link #claimRoom(BookingRequest)}.
+	 *
+	 * @return the id of the claimed room, or {@code null} if no room is available
+	 */
+	String tryClaimRoom(BookingRequest bookingRequest);
+
+	/**
+	 * Claims the given room for the request, e.g. a room a cancellation has just freed.
+	 *
+	 * @return whether the room was free for the request and is now claimed
+	 */
+	boolean tryClaimRoom(String roomId, BookingRequest bookingRequest);
+
+	/**
+	 * Splits a party too large for one room over several rooms and books all of them,
+	 * or none.
+	 *
+	 * @return the ids of the claimed rooms, the largest first
+	 */
+	default List<String> claimRooms(BookingRequest bookingRequest) {
+		List<String> roomIds = tryClaimRooms(bookingRequest, DEFAULT_GROUP_BUDGET_NANOS);
+		if (roomIds == null) {
+			throw BusinessException.NO_ROOM_AVAILABLE;
+		}
+		return roomIds;
+	}
+
+	/**
+	 * Non-throwing variant of {@link #claimRooms(BookingRequest)}, searching for a split
+	 * for at most {@code budgetNanos}.
+	 *
+	 * @return the ids of the claimed rooms, or {@code null} if the party does not fit
+	 */
+	List<String> tryClaimRooms(BookingRequest bookingRequest, long budgetNanos);
+
+	/**
+	 * Claims a room like {@link #claimRoom(BookingRequest)} and keeps it only for
+	 * {@code holdMillis} unless {@link #confirm(RoomHold) confirmed} in time.
+	 */
+	default RoomHold holdRoom(BookingRequest bookingRequest, long holdMillis) {
+		RoomHold hold = tryHoldRoom(bookingRequest, holdMillis);
+		if (hold == null) {
+			throw BusinessException.NO_ROOM_AVAILABLE;
+		}
+		return hold;
+	}
+
+	/**
+	 * Non-throwing variant of {@link #holdRoom(BookingRequest, long)}.
+	 *
+	 * @return the hold, or {@code null} if no room is available
+	 */
+	default RoomHold tryHoldRoom(BookingRequest bookingRequest, long holdMillis) {
+		String roomId = tryClaimRoom(bookingRequest);
+		if (roomId == null) {
+			return null;
+		}
+		RoomHold hold = new RoomHold(roomId, bookingRequest);
+		hold.setExpiry(getHoldTimer().schedule(() -> {
+			if (hold.end(RoomHold.EXPIRED)) {
+				releaseClaim(roomId, bookingRequest);
+			}
+		}, holdMillis));
+		return hold;
+	}
+
+	/**
+	 * Turns the hold into a booking.
+	 *
+	 * @throws BusinessException if the hold has expired or was released
+	 */
+	default void confirm(RoomHold hold) {
+		if (!hold.end(RoomHold.CONFIRMED)) {
+			throw BusinessException.ROOM_NOT_AVAILABLE;
+		}
+	}
+
+	/**
+	 * Gives the held room back; does nothing if the hold has already ended.
+	 */
+	default void release(RoomHold hold) {
+		if (hold.end(RoomHold.RELEASED)) {
+			releaseClaim(hold.getRoomId(), hold.getBookingRequest());
+		}
+	}
+
+	/**
+	 * @return the timer expiring holds, started by the first hold
+	 */
+	TimingWheel getHoldTimer();
+
+	void setHoldTimer(TimingWheel holdTimer);
+
+	AllocationPolicy getAllocationPolicy();
+
+	void setAllocationPolicy(AllocationPolicy allocationPolicy);
+
+	/**
+	 * @return an unmodifiable list of the rooms available tonight, as counted by
+	 * {@link #getAvailableRoomCount()}
+	 */
+	List<Room> getAvailableRooms();
+
+	int getAvailableRoomCount();
+
+	int getAvailablePlaceCount();
+
+	int getAvailableRoomCount(int capacity);
+
+	int getAvailableRoomCount(LocalDate night);
+
+	int getAvailablePlaceCount(LocalDate night);
+
+	int getAvailableRoomCount(int capacity, LocalDate night);
+
+	int getRoomCount();
+
+	int getRoomCapacity(String roomId);
+
+	String getRoomType(String roomId);
+
+	int getRoomHandle(String roomId);
+
+	void bookRoom(String roomId);
+
+	void unbookRoom(String roomId);
+
+	void bookRoom(int handle);
+
+	void unbookRoom(int handle);
+
+	/**
+	 * @return whether the room is neither taken open-ended nor booked for the stay; with
+	 * {@code null} dates, whether it could be taken open-ended from today
+	 */
+	boolean isRoomAvailable(String roomId, LocalDate dateFrom, LocalDate dateTo);
+
+	void bookRoom(String roomId, LocalDate dateFrom, LocalDate dateTo);
+
+	void unbookRoom(String roomId, LocalDate dateFrom, LocalDate dateTo);
+
+	/**
+	 * Stops the hold timer. Holds still open then no longer expire; a later hold starts
+	 * a new timer.
+	 */
+	@Override
+	void close();
+
+	private void releaseClaim(String roomId, BookingRequest bookingRequest) {
+		if (bookingRequest.getDateFrom() == null || bookingRequest.getDateTo() == null) {
+			unbookRoom(roomId);
+		} else {
+			unbookRoom(roomId, bookingRequest.getDateFrom(), bookingRequest.getDateTo());
+		}
+	}
+
+}
@@ -3,62 +3,538 @@ package com.parmeet.unittest.hotelbookingapp.service;
 import com.parmeet.unittest.hotelbookingapp.exception.BusinessException;
 import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
 import com.parmeet.unittest.hotelbookingapp.model.Room;
+import com.parmeet.unittest.hotelbookingapp.util.TimingWheel;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class RoomService {
+public class RoomService implements RoomInventory {
 
-	private final Map<Room, Boolean> roomAvailability;
-	{
-		roomAvailability = new HashMap<>();
-		roomAvailability.put(new Room("1.1", 2), true);
-		roomAvailability.put(new Room("1.2", 2), true);
-		roomAvailability.put(new Room("1.3", 5), true);
-		roomAvailability.put(new Room("2.1", 3), true);
-		roomAvailability.put(new Room("2.2", 4), true);
+	private static final List<Room> DEFAULT_ROOMS = Arrays.asList(
+			new Room("1.1", 2),
+			new Room("1.2", 2),
+			new Room("1.3", 5),
+			new Room("2.1", 3),
+			new Room("2.2", 4));
+
+	private static final int GROUP_CLAIM_ATTEMPTS = 3;
+	private static final long HOLD_TICK_MILLIS = 100;
+	private static final int HOLD_WHEEL_SIZE = 512;
+
+	private final Room[] rooms;
+	private final Map<String, Integer> roomHandles;
+	private final RoomCalendar[] roomCalendars;
+	private final NavigableMap<Integer, CapacityBucket> buckets;
+	private final CapacityBucket[] bucketOfRoom;
+	private final int[] slotOfRoom;
+	private final AtomicInteger freeRooms;
+	private final AtomicInteger freePlaces;
+	private final Map<Long, NightCount> bookedByNight = new ConcurrentHashMap<>();
+	private final AtomicLong availabilityVersion = new AtomicLong();
+	private volatile AvailableRooms availableRooms;
+	private volatile AllocationPolicy allocationPolicy = AllocationPolicy.BEST_FIT;
+	private volatile TimingWheel holdTimer;
+
+	public RoomService() {
+		this(DEFAULT_ROOMS);
+	}
+
+	public RoomService(Collection<Room> rooms) {
+		this.rooms = rooms.toArray(new Room[0]);
+		this.roomHandles = new HashMap<>();
+		this.roomCalendars = new RoomCalendar[this.rooms.length];
+		this.bucketOfRoom = new CapacityBucket[this.rooms.length];
+		this.slotOfRoom = new int[this.rooms.length];
+		this.freeRooms = new AtomicInteger(this.rooms.length);
+		this.freePlaces = new AtomicInteger(Arrays.stream(this.rooms).mapToInt(Room::getCapacity).sum());
+
+		Map<Integer, List<Integer>> handlesByCapacity = new HashMap<>();
+		for (int handle = 0; handle < this.rooms.length; handle++) {
+			Room room = this.rooms[handle];
+			if (roomHandles.putIfAbsent(room.getId(), handle) != null) {
+				throw new IllegalArgumentException("Duplicate room id: " + room.getId());
+			}
+			roomCalendars[handle] = new RoomCalendar();
+			List<Integer> handles = handlesByCapacity.computeIfAbsent(room.getCapacity(), capacity -> new ArrayList<>());
+			slotOfRoom[handle] = handles.size();
+			handles.add(handle);
+		}
+
+		this.buckets = new TreeMap<>();
+		handlesByCapacity.forEach((capacity, handles) -> {
+			CapacityBucket bucket = new CapacityBucket(capacity,
+					handles.stream().mapToInt(Integer::intValue).toArray());
+			buckets.put(capacity, bucket);
+			handles.forEach(handle -> bucketOfRoom[handle] = bucket);
+		});
+	}
+
+	public String tryFindAvailableRoomId(BookingRequest bookingRequest) {
+		int handle = allocate(bookingRequest, false);
+		return handle < 0 ? null : rooms[handle].getId();
+	}
+
+	/**
+	 * Claims a room in one atomic step. Undated requests take the room open-ended from
+	 * today and skip rooms with stays ending after today; dated requests book the stay
+	 * in the room's calendar and skip rooms taken open-ended.
+	 *
+	 * @return the id of the claimed room, or {@code null} if no room is available
+	 */
+	public String tryClaimRoom(BookingRequest bookingRequest) {
+		int handle = allocate(bookingRequest, true);
+		return handle < 0 ? null : rooms[handle].getId();
+	}
+
+	public boolean tryClaimRoom(String roomId, BookingRequest bookingRequest) {
+		int handle = handleOf(roomId);
+		if (rooms[handle].getCapacity() < bookingRequest.getGuestCount()) {
+			return false;
+		}
+		LocalDate dateFrom = bookingRequest.getDateFrom();
+		LocalDate dateTo = bookingRequest.getDateTo();
+		if (dateFrom == null || dateTo == null) {
+			return takeOpenEnded(handle, LocalDate.now().toEpochDay());
+		}
+		return bookStay(handle, dateFrom.toEpochDay(), dateTo.toEpochDay());
 	}
 
-	public String findAvailableRoomId(BookingRequest bookingRequest) {
-		return roomAvailability.entrySet().stream()
-				.filter(entry -> entry.getValue()).map(entry -> entry.getKey())
-				.filter(room -> room.getCapacity() == bookingRequest.getGuestCount())
-				.findFirst()
-				.map(room -> room.getId())
-				.orElseThrow(BusinessException::new);
+	/**
+	 * Splits a party too large for one room over several rooms and books all of them,
+	 * or none. Undated requests take the rooms open-ended, dated requests book the stay
+	 * in every room's calendar. The search for the fewest rooms, then fewest empty beds,
+	 * stops at {@code budgetNanos} with the best split found so far. If another booking
+	 * takes a chosen room first, the rooms already claimed are released and the split
+	 * is searched again.
+	 *
+	 * @return the ids of the claimed rooms, or {@code null} if the party does not fit
+	 */
+	public List<String> tryClaimRooms(BookingRequest bookingRequest, long budgetNanos) {
+		long deadline = System.nanoTime() + budgetNanos;
+		LocalDate dateFrom = bookingRequest.getDateFrom();
+		LocalDate dateTo = bookingRequest.getDateTo();
+		boolean dated = dateFrom != null && dateTo != null;
+		long from = dated ? dateFrom.toEpochDay() : 0;
+		long to = dated ? dateTo.toEpochDay() : 0;
+		long today = LocalDate.now().toEpochDay();
+		for (int attempt = 0; attempt < GROUP_CLAIM_ATTEMPTS; attempt++) {
+			int levels = buckets.size();
+			int[] capacities = new int[levels];
+			int[] available = new int[levels];
+			int[][] candidates = new int[levels][];
+			int level = 0;
+			for (CapacityBucket bucket : buckets.descendingMap().values()) {
+				int[] handles = new int[bucket.getFreeCount() > 0 ? bucket.size() : 0];
+				int count = 0;
+				for (int slot = nextFree(bucket, 0, dated, from, to); slot >= 0 && count < handles.length;
+						slot = nextFree(bucket, slot + 1, dated, from, to)) {
+					int handle = bucket.handle(slot);
+					// open-ended claims cannot take a room with a stay still ahead
+					if (dated || !roomCalendars[handle].hasStayAfter(today)) {
+						handles[count++] = handle;
+					}
+				}
+				capacities[level] = bucket.getCapacity();
+				available[level] = count;
+				candidates[level++] = handles;
+			}
+			int[] counts = GroupAllocator.allocate(bookingRequest.getGuestCount(), capacities, available, deadline);
+			if (counts == null) {
+				return null;
+			}
+			List<String> roomIds = claimAll(counts, candidates, available, dated, from, to);
+			if (roomIds != null) {
+				return roomIds;
+			}
+		}
+		return null;
 	}
-	
+
+	public TimingWheel getHoldTimer() {
+		TimingWheel timer = holdTimer;
+		if (timer == null) {
+			synchronized (this) {
+				timer = holdTimer;
+				if (timer == null) {
+					timer = new TimingWheel(HOLD_TICK_MILLIS, HOLD_WHEEL_SIZE).start();
+					holdTimer = timer;
+				}
+			}
+		}
+		return timer;
+	}
+
+	public void setHoldTimer(TimingWheel holdTimer) {
+		this.holdTimer = holdTimer;
+	}
+
+	public void close() {
+		synchronized (this) {
+			if (holdTimer != null) {
+				holdTimer.close();
+				holdTimer = null;
+			}
+		}
+	}
+
+	public AllocationPolicy getAllocationPolicy() {
+		return allocationPolicy;
+	}
+
+	public void setAllocationPolicy(AllocationPolicy allocationPolicy) {
+		this.allocationPolicy = allocationPolicy;
+	}
+
+	/**
+	 * @return an unmodifiable list of the rooms available tonight, as counted by
+	 * {@link #getAvailableRoomCount()}, rebuilt only after availability has changed
+	 */
 	public List<Room> getAvailableRooms() {
-		return roomAvailability.entrySet().stream()
-				.filter(entry -> entry.getValue())
-				.map(entry -> entry.getKey())
-				.collect(Collectors.toList());
+		long version = availabilityVersion.get();
+		long tonight = LocalDate.now().toEpochDay();
+		AvailableRooms cached = availableRooms;
+		if (cached != null && cached.version == version && cached.night == tonight) {
+			return cached.rooms;
+		}
+		List<Room> available = new ArrayList<>(freeRooms.get());
+		for (int handle = 0; handle < rooms.length; handle++) {
+			if (isFree(handle) && !bucketOfRoom[handle].isBooked(slotOfRoom[handle], tonight)) {
+				available.add(rooms[handle]);
+			}
+		}
+		cached = new AvailableRooms(version, tonight, Collections.unmodifiableList(available));
+		availableRooms = cached;
+		return cached.rooms;
 	}
-	
+
+	/**
+	 * The counters below count the rooms available on a night from tonight on: neither
+	 * taken open-ended nor booked that night. The no-argument variants count tonight.
+	 * Running counters are adjusted right after each claim, release and stay, so a
+	 * read is a lookup, and under concurrent bookings they may briefly trail the rooms
+	 * themselves.
+	 */
+	public int getAvailableRoomCount() {
+		return getAvailableRoomCount(LocalDate.now());
+	}
+
+	public int getAvailablePlaceCount() {
+		return getAvailablePlaceCount(LocalDate.now());
+	}
+
+	public int getAvailableRoomCount(int capacity) {
+		return getAvailableRoomCount(capacity, LocalDate.now());
+	}
+
+	public int getAvailableRoomCount(LocalDate night) {
+		NightCount booked = bookedByNight.get(night.toEpochDay());
+		return booked == null ? freeRooms.get() : freeRooms.get() - booked.rooms;
+	}
+
+	public int getAvailablePlaceCount(LocalDate night) {
+		NightCount booked = bookedByNight.get(night.toEpochDay());
+		return booked == null ? freePlaces.get() : freePlaces.get() - booked.places;
+	}
+
+	public int getAvailableRoomCount(int capacity, LocalDate night) {
+		CapacityBucket bucket = buckets.get(capacity);
+		return bucket == null ? 0 : bucket.getFreeCount(night.toEpochDay());
+	}
+
 	public int getRoomCount() {
-		return roomAvailability.size();
+		return rooms.length;
+	}
+
+	public int getRoomCapacity(String roomId) {
+		return rooms[handleOf(roomId)].getCapacity();
+	}
+
+	public String getRoomType(String roomId) {
+		return rooms[handleOf(roomId)].getType();
+	}
+
+	public int getRoomHandle(String roomId) {
+		return handleOf(roomId);
 	}
 
 	public void bookRoom(String roomId) {
-		Room room = roomAvailability.entrySet().stream()
-			.filter(entry -> entry.getKey().getId().equals(roomId) && entry.getValue())
-			.findFirst()
-			.map(entry -> entry.getKey())
-			.orElseThrow(BusinessException::new);
-		
-		roomAvailability.put(room, true);		
-	}
-	
+		bookRoom(handleOf(roomId));
+	}
+
 	public void unbookRoom(String roomId) {
-		Room room = roomAvailability.entrySet().stream()
-			.filter(entry -> entry.getKey().getId().equals(roomId) && !entry.getValue())
-			.findFirst()
-			.map(entry -> entry.getKey())
-			.orElseThrow(BusinessException::new);
-		
-		roomAvailability.put(room, false);		
-	}
-	
+		unbookRoom(handleOf(roomId));
+	}
+
+	public void bookRoom(int handle) {
+		if (!isKnown(handle) || !takeOpenEnded(handle, LocalDate.now().toEpochDay())) {
+			throw BusinessException.ROOM_NOT_AVAILABLE;
+		}
+	}
+
+	public void unbookRoom(int handle) {
+		if (!isKnown(handle) || !bucketOfRoom[handle].release(slotOfRoom[handle])) {
+			throw BusinessException.ROOM_NOT_AVAILABLE;
+		}
+		availabilityChanged(rooms[handle].getCapacity(), 1);
+	}
+
+	public boolean isRoomAvailable(String roomId, LocalDate dateFrom, LocalDate dateTo) {
+		int handle = handleOf(roomId);
+		return isFree(handle) && isFree(handle, dateFrom, dateTo);
+	}
+
+	public void bookRoom(String roomId, LocalDate dateFrom, LocalDate dateTo) {
+		if (!bookStay(handleOf(roomId), dateFrom.toEpochDay(), dateTo.toEpochDay())) {
+			throw BusinessException.ROOM_NOT_AVAILABLE;
+		}
+	}
+
+	public void unbookRoom(String roomId, LocalDate dateFrom, LocalDate dateTo) {
+		if (!releaseStay(handleOf(roomId), dateFrom.toEpochDay(), dateTo.toEpochDay())) {
+			throw BusinessException.ROOM_NOT_AVAILABLE;
+		}
+	}
+
+	/**
+	 * Walks the capacity buckets that can host the party, smallest first, starting
+	 * with a ceiling lookup on the guest count.
+	 *
+	 * @return the handle of the room found, and claimed if {@code claim} is set, or -1
+	 */
+	private int allocate(BookingRequest bookingRequest, boolean claim) {
+		AllocationPolicy policy = allocationPolicy;
+		int guestCount = bookingRequest.getGuestCount();
+		LocalDate dateFrom = bookingRequest.getDateFrom();
+		LocalDate dateTo = bookingRequest.getDateTo();
+		boolean dated = dateFrom != null && dateTo != null;
+		Map.Entry<Integer, CapacityBucket> entry = buckets.ceilingEntry(guestCount);
+		while (entry != null && (policy != AllocationPolicy.EXACT_MATCH || entry.getKey() == guestCount)) {
+			CapacityBucket bucket = entry.getValue();
+			if (bucket.getFreeCount() > 0) {
+				int handle;
+				if (!dated) {
+					handle = allocateUndated(bucket, claim);
+				} else if (policy == AllocationPolicy.MIN_WASTE) {
+					handle = allocateTightest(bucket, dateFrom.toEpochDay(), dateTo.toEpochDay(), claim);
+				} else {
+					handle = allocateFirst(bucket, dateFrom.toEpochDay(), dateTo.toEpochDay(), claim);
+				}
+				if (handle >= 0) {
+					return handle;
+				}
+			}
+			entry = buckets.higherEntry(entry.getKey());
+		}
+		return -1;
+	}
+
+	private int allocateUndated(CapacityBucket bucket, boolean claim) {
+		long today = LocalDate.now().toEpochDay();
+		for (int slot = bucket.nextFree(0); slot >= 0; slot = bucket.nextFree(slot + 1)) {
+			int handle = bucket.handle(slot);
+			if (claim ? takeOpenEnded(handle, today) : !roomCalendars[handle].hasStayAfter(today)) {
+				return handle;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Takes candidates from the bucket's per-night index; the calendar stays the
+	 * authority, so a candidate booked meanwhile is skipped.
+	 */
+	private int allocateFirst(CapacityBucket bucket, long from, long to, boolean claim) {
+		for (int slot = bucket.nextFree(0, from, to); slot >= 0; slot = bucket.nextFree(slot + 1, from, to)) {
+			int handle = bucket.handle(slot);
+			if (claim ? bookStay(handle, from, to) : roomCalendars[handle].isFree(from, to)) {
+				return handle;
+			}
+		}
+		return -1;
+	}
+
+	private int allocateTightest(CapacityBucket bucket, long from, long to, boolean claim) {
+		while (true) {
+			int best = -1;
+			long bestSlack = Long.MAX_VALUE;
+			for (int slot = bucket.nextFree(0, from, to); slot >= 0; slot = bucket.nextFree(slot + 1, from, to)) {
+				int handle = bucket.handle(slot);
+				long slack = roomCalendars[handle].getSlack(from, to);
+				if (slack >= 0 && slack < bestSlack) {
+					best = handle;
+					bestSlack = slack;
+				}
+			}
+			// a failed booking means another stay took the room meanwhile, so look again
+			if (best < 0 || !claim || bookStay(best, from, to)) {
+				return best;
+			}
+		}
+	}
+
+	private List<String> claimAll(int[] counts, int[][] candidates, int[] available, boolean dated, long from, long to) {
+		long today = LocalDate.now().toEpochDay();
+		List<Integer> claimed = new ArrayList<>();
+		for (int level = 0; level < counts.length; level++) {
+			int taken = 0;
+			for (int i = 0; i < available[level] && taken < counts[level]; i++) {
+				int handle = candidates[level][i];
+				if (dated ? bookStay(handle, from, to) : takeOpenEnded(handle, today)) {
+					claimed.add(handle);
+					taken++;
+				}
+			}
+			if (taken < counts[level]) {
+				for (int handle : claimed) {
+					if (dated) {
+						releaseStay(handle, from, to);
+					} else {
+						unbookRoom(handle);
+					}
+				}
+				return null;
+			}
+		}
+		List<String> roomIds = new ArrayList<>(claimed.size());
+		for (int handle : claimed) {
+			roomIds.add(rooms[handle].getId());
+		}
+		return roomIds;
+	}
+
+	private static int nextFree(CapacityBucket bucket, int fromSlot, boolean dated, long from, long to) {
+		return dated ? bucket.nextFree(fromSlot, from, to) : bucket.nextFree(fromSlot);
+	}
+
+	/**
+	 * Takes the room open-ended unless a stay ends after {@code today}. The check and
+	 * the claim run under the calendar's lock, like {@link #bookStay}, so an open-ended
+	 * claim and a dated stay never both get the room.
+	 */
+	private boolean takeOpenEnded(int handle, long today) {
+		RoomCalendar calendar = roomCalendars[handle];
+		synchronized (calendar) {
+			if (calendar.hasStayAfter(today) || !bucketOfRoom[handle].claim(slotOfRoom[handle])) {
+				return false;
+			}
+		}
+		availabilityChanged(rooms[handle].getCapacity(), -1);
+		return true;
+	}
+
+	/**
+	 * Books the stay in the room's calendar and marks its nights in the bucket's
+	 * per-night index under the calendar's lock, so the index never lags a release
+	 * and a following booking of the same nights. A room taken open-ended is not
+	 * available for stays.
+	 */
+	private boolean bookStay(int handle, long from, long to) {
+		RoomCalendar calendar = roomCalendars[handle];
+		synchronized (calendar) {
+			if (!bucketOfRoom[handle].isFree(slotOfRoom[handle]) || !calendar.book(from, to)) {
+				return false;
+			}
+			bucketOfRoom[handle].markStay(slotOfRoom[handle], from, to, true);
+		}
+		stayChanged(rooms[handle].getCapacity(), from, to, 1);
+		return true;
+	}
+
+	private boolean releaseStay(int handle, long from, long to) {
+		RoomCalendar calendar = roomCalendars[handle];
+		synchronized (calendar) {
+			if (!calendar.release(from, to)) {
+				return false;
+			}
+			bucketOfRoom[handle].markStay(slotOfRoom[handle], from, to, false);
+		}
+		stayChanged(rooms[handle].getCapacity(), from, to, -1);
+		return true;
+	}
+
+	private void availabilityChanged(int capacity, int delta) {
+		freeRooms.addAndGet(delta);
+		freePlaces.addAndGet(delta * capacity);
+		availabilityVersion.incrementAndGet();
+	}
+
+	/**
+	 * Adjusts the booked rooms and places of each night of the stay, dropping nights
+	 * that have no stays left.
+	 */
+	private void stayChanged(int capacity, long from, long to, int delta) {
+		for (long night = from; night < to; night++) {
+			bookedByNight.compute(night, (key, booked) -> {
+				int bookedRooms = (booked == null ? 0 : booked.rooms) + delta;
+				return bookedRooms == 0 ? null
+						: new NightCount(bookedRooms, (booked == null ? 0 : booked.places) + delta * capacity);
+			});
+		}
+		availabilityVersion.incrementAndGet();
+	}
+
+	private boolean isFree(int handle) {
+		return bucketOfRoom[handle].isFree(slotOfRoom[handle]);
+	}
+
+	private boolean isFree(int handle, LocalDate dateFrom, LocalDate dateTo) {
+		if (dateFrom == null || dateTo == null) {
+			return !roomCalendars[handle].hasStayAfter(LocalDate.now().toEpochDay());
+		}
+		return roomCalendars[handle].isFree(dateFrom.toEpochDay(), dateTo.toEpochDay());
+	}
+
+	private boolean isKnown(int handle) {
+		return handle >= 0 && handle < rooms.length;
+	}
+
+	private int handleOf(String roomId) {
+		Integer handle = roomHandles.get(roomId);
+		if (handle == null) {
+			throw BusinessException.UNKNOWN_ROOM;
+		}
+		return handle;
+	}
+
+	private static final class AvailableRooms {
+
+		private final long version;
+		private final long night;
+		private final List<Room> rooms;
+
+		private AvailableRooms(long version, long night, List<Room> rooms) {
+			this.version = version;
+			this.night = night;
+			this.rooms = rooms;
+		}
+
+	}
+
+	/**
+	 * Rooms and places booked on one night; replaced, never mutated, so readers need no
+	 * lock.
+	 */
+	private static final class NightCount {
+
+		private final int rooms;
+		private final int places;
+
+		private NightCount(int rooms, int places) {
+			this.rooms = rooms;
+			this.places = places;
+		}
+
+	}
+
 }
@@ -0,0 +1,406 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import com.parmeet.unittest.hotelbookingapp.exception.BusinessException;
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import com.parmeet.unittest.hotelbookingapp.model.Room;
+import com.parmeet.unittest.hotelbookingapp.util.TimingWheel;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * {@link RoomInventory} partitioned into independent {@link RoomService} shards, by
+ * default one per floor (the part of the room id before the first dot). Shards share
+ * no state, so bookings on different floors never contend. Calls run on the caller's
+ * thread and go straight to the shard owning the room; each shard's thread only serves
+ * {@link #tryClaimRoomAsync(BookingRequest)}, so that the caller never waits.
+ * <p>
+ * Claims go to the requester's preferred shard first and then to the other shards in
+ * turn. A group goes to one shard if any can host it whole, and is split over several
+ * shards otherwise.
+ */
+public class ShardedRoomService implements RoomInventory {
+
+	private static final long HOLD_TICK_MILLIS = 100;
+	private static final int HOLD_WHEEL_SIZE = 512;
+
+	private final RoomService[] shards;
+	private final ExecutorService[] executors;
+	private final Map<String, Integer> shardOfRoom = new HashMap<>();
+	private final int[] handleOffsets;
+	private volatile AllocationPolicy allocationPolicy = AllocationPolicy.BEST_FIT;
+	private volatile TimingWheel holdTimer;
+
+	public ShardedRoomService(Collection<Room> rooms) {
+		this(rooms, ShardedRoomService::floorOf);
+	}
+
+	public ShardedRoomService(Collection<Room> rooms, Function<Room, String> shardKey) {
+		Map<String, List<Room>> roomsByShard = new LinkedHashMap<>();
+		for (Room room : rooms) {
+			roomsByShard.computeIfAbsent(shardKey.apply(room), key -> new ArrayList<>()).add(room);
+		}
+		int shardCount = roomsByShard.size();
+		this.shards = new RoomService[shardCount];
+		this.executors = new ExecutorService[shardCount];
+		this.handleOffsets = new int[shardCount + 1];
+		int shard = 0;
+		for (List<Room> shardRooms : roomsByShard.values()) {
+			shards[shard] = new RoomService(shardRooms);
+			for (Room room : shardRooms) {
+				if (shardOfRoom.putIfAbsent(room.getId(), shard) != null) {
+					throw new IllegalArgumentException("Duplicate room id: " + room.getId());
+				}
+			}
+			handleOffsets[shard + 1] = handleOffsets[shard] + shardRooms.size();
+			int index = shard;
+			executors[shard] = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "room-shard-" + index);
+				thread.setDaemon(true);
+				return thread;
+			});
+			shard++;
+		}
+	}
+
+	public int getShardCount() {
+		return shards.length;
+	}
+
+	@Override
+	public String tryFindAvailableRoomId(BookingRequest bookingRequest) {
+		int preferred = preferredShard(bookingRequest);
+		for (int i = 0; i < shards.length; i++) {
+			String roomId = shards[(preferred + i) % shards.length].tryFindAvailableRoomId(bookingRequest);
+			if (roomId != null) {
+				return roomId;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String tryClaimRoom(BookingRequest bookingRequest) {
+		int preferred = preferredShard(bookingRequest);
+		for (int i = 0; i < shards.length; i++) {
+			String roomId = shards[(preferred + i) % shards.length].tryClaimRoom(bookingRequest);
+			if (roomId != null) {
+				return roomId;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public boolean tryClaimRoom(String roomId, BookingRequest bookingRequest) {
+		return shards[shardOf(roomId)].tryClaimRoom(roomId, bookingRequest);
+	}
+
+	/**
+	 * Asynchronous {@link #tryClaimRoom(BookingRequest)}: the caller never waits for a
+	 * shard thread, so many claims can be in flight at once.
+	 *
+	 * @return the id of the claimed room, or {@code null} if no shard has a room
+	 */
+	public CompletableFuture<String> tryClaimRoomAsync(BookingRequest bookingRequest) {
+		return claimFrom(bookingRequest, preferredShard(bookingRequest), 0);
+	}
+
+	private CompletableFuture<String> claimFrom(BookingRequest bookingRequest, int preferred, int attempt) {
+		if (attempt == shards.length) {
+			return CompletableFuture.completedFuture(null);
+		}
+		int shard = (preferred + attempt) % shards.length;
+		return CompletableFuture.supplyAsync(() -> shards[shard].tryClaimRoom(bookingRequest), executors[shard])
+				.thenCompose(roomId -> roomId != null
+						? CompletableFuture.completedFuture(roomId)
+						: claimFrom(bookingRequest, preferred, attempt + 1));
+	}
+
+	@Override
+	public List<String> tryClaimRooms(BookingRequest bookingRequest, long budgetNanos) {
+		long deadline = System.nanoTime() + budgetNanos;
+		int preferred = preferredShard(bookingRequest);
+		for (int i = 0; i < shards.length; i++) {
+			long remaining = Math.max(0, deadline - System.nanoTime());
+			List<String> roomIds = shards[(preferred + i) % shards.length].tryClaimRooms(bookingRequest, remaining);
+			if (roomIds != null) {
+				return roomIds;
+			}
+		}
+		return tryClaimAcrossShards(bookingRequest, preferred, deadline);
+	}
+
+	/**
+	 * Splits a group no single shard can host: each shard in turn takes as large a part
+	 * of the party as it still fits, halving the part while it does not. The rooms are
+	 * released again if the whole party does not fit.
+	 */
+	private List<String> tryClaimAcrossShards(BookingRequest bookingRequest, int preferred, long deadline) {
+		List<String> roomIds = new ArrayList<>();
+		int remaining = bookingRequest.getGuestCount();
+		for (int i = 0; i < shards.length && remaining > 0; i++) {
+			RoomService shard = shards[(preferred + i) % shards.length];
+			int part = Math.min(remaining, placesFor(shard, bookingRequest));
+			while (part > 0) {
+				List<String> claimed = shard.tryClaimRooms(partOf(bookingRequest, part),
+						Math.max(0, deadline - System.nanoTime()));
+				if (claimed == null) {
+					part /= 2;
+					continue;
+				}
+				for (String roomId : claimed) {
+					remaining -= shard.getRoomCapacity(roomId);
+				}
+				roomIds.addAll(claimed);
+				part = Math.min(part, Math.max(0, remaining));
+			}
+		}
+		if (remaining > 0) {
+			for (String roomId : roomIds) {
+				if (bookingRequest.getDateFrom() == null || bookingRequest.getDateTo() == null) {
+					unbookRoom(roomId);
+				} else {
+					unbookRoom(roomId, bookingRequest.getDateFrom(), bookingRequest.getDateTo());
+				}
+			}
+			return null;
+		}
+		roomIds.sort((a, b) -> Integer.compare(getRoomCapacity(b), getRoomCapacity(a)));
+		return roomIds;
+	}
+
+	/**
+	 * @return an upper bound on the places the shard has for the request
+	 */
+	private static int placesFor(RoomService shard, BookingRequest bookingRequest) {
+		return bookingRequest.getDateFrom() == null || bookingRequest.getDateTo() == null
+				? shard.getAvailablePlaceCount()
+				: shard.getAvailablePlaceCount(bookingRequest.getDateFrom());
+	}
+
+	private static BookingRequest partOf(BookingRequest bookingRequest, int guestCount) {
+		return new BookingRequest(bookingRequest.getUserId(), bookingRequest.getDateFrom(),
+				bookingRequest.getDateTo(), guestCount, bookingRequest.isPrepaid());
+	}
+
+	@Override
+	public TimingWheel getHoldTimer() {
+		TimingWheel timer = holdTimer;
+		if (timer == null) {
+			synchronized (this) {
+				timer = holdTimer;
+				if (timer == null) {
+					timer = new TimingWheel(HOLD_TICK_MILLIS, HOLD_WHEEL_SIZE).start();
+					holdTimer = timer;
+				}
+			}
+		}
+		return timer;
+	}
+
+	@Override
+	public void setHoldTimer(TimingWheel holdTimer) {
+		this.holdTimer = holdTimer;
+	}
+
+	@Override
+	public AllocationPolicy getAllocationPolicy() {
+		return allocationPolicy;
+	}
+
+	@Override
+	public void setAllocationPolicy(AllocationPolicy allocationPolicy) {
+		this.allocationPolicy = allocationPolicy;
+		for (RoomService shard : shards) {
+			shard.setAllocationPolicy(allocationPolicy);
+		}
+	}
+
+	@Override
+	public List<Room> getAvailableRooms() {
+		List<Room> availableRooms = new ArrayList<>();
+		for (RoomService shard : shards) {
+			availableRooms.addAll(shard.getAvailableRooms());
+		}
+		return Collections.unmodifiableList(availableRooms);
+	}
+
+	@Override
+	public int getAvailableRoomCount() {
+		int count = 0;
+		for (RoomService shard : shards) {
+			count += shard.getAvailableRoomCount();
+		}
+		return count;
+	}
+
+	@Override
+	public int getAvailablePlaceCount() {
+		int count = 0;
+		for (RoomService shard : shards) {
+			count += shard.getAvailablePlaceCount();
+		}
+		return count;
+	}
+
+	@Override
+	public int getAvailableRoomCount(int capacity) {
+		int count = 0;
+		for (RoomService shard : shards) {
+			count += shard.getAvailableRoomCount(capacity);
+		}
+		return count;
+	}
+
+	@Override
+	public int getAvailableRoomCount(LocalDate night) {
+		int count = 0;
+		for (RoomService shard : shards) {
+			count += shard.getAvailableRoomCount(night);
+		}
+		return count;
+	}
+
+	@Override
+	public int getAvailablePlaceCount(LocalDate night) {
+		int count = 0;
+		for (RoomService shard : shards) {
+			count += shard.getAvailablePlaceCount(night);
+		}
+		return count;
+	}
+
+	@Override
+	public int getAvailableRoomCount(int capacity, LocalDate night) {
+		int count = 0;
+		for (RoomService shard : shards) {
+			count += shard.getAvailableRoomCount(capacity, night);
+		}
+		return count;
+	}
+
+	@Override
+	public int getRoomCount() {
+		return handleOffsets[shards.length];
+	}
+
+	@Override
+	public int getRoomCapacity(String roomId) {
+		return shards[shardOf(roomId)].getRoomCapacity(roomId);
+	}
+
+	@Override
+	public String getRoomType(String roomId) {
+		return shards[shardOf(roomId)].getRoomType(roomId);
+	}
+
+	@Override
+	public int getRoomHandle(String roomId) {
+		int shard = shardOf(roomId);
+		return handleOffsets[shard] + shards[shard].getRoomHandle(roomId);
+	}
+
+	@Override
+	public void bookRoom(String roomId) {
+		shards[shardOf(roomId)].bookRoom(roomId);
+	}
+
+	@Override
+	public void unbookRoom(String roomId) {
+		shards[shardOf(roomId)].unbookRoom(roomId);
+	}
+
+	@Override
+	public void bookRoom(int handle) {
+		int shard = shardOfHandle(handle);
+		int local = handle - handleOffsets[shard];
+		shards[shard].bookRoom(local);
+	}
+
+	@Override
+	public void unbookRoom(int handle) {
+		int shard = shardOfHandle(handle);
+		int local = handle - handleOffsets[shard];
+		shards[shard].unbookRoom(local);
+	}
+
+	@Override
+	public boolean isRoomAvailable(String roomId, LocalDate dateFrom, LocalDate dateTo) {
+		return shards[shardOf(roomId)].isRoomAvailable(roomId, dateFrom, dateTo);
+	}
+
+	@Override
+	public void bookRoom(String roomId, LocalDate dateFrom, LocalDate dateTo) {
+		shards[shardOf(roomId)].bookRoom(roomId, dateFrom, dateTo);
+	}
+
+	@Override
+	public void unbookRoom(String roomId, LocalDate dateFrom, LocalDate dateTo) {
+		shards[shardOf(roomId)].unbookRoom(roomId, dateFrom, dateTo);
+	}
+
+	@Override
+	public void close() {
+		for (ExecutorService executor : executors) {
+			executor.shutdown();
+		}
+		for (RoomService shard : shards) {
+			shard.close();
+		}
+		synchronized (this) {
+			if (holdTimer != null) {
+				holdTimer.close();
+				holdTimer = null;
+			}
+		}
+	}
+
+	/**
+	 * Spreads requesters over the shards by user, so one guest's bookings stay on one
+	 * shard while there is room.
+	 */
+	protected int preferredShard(BookingRequest bookingRequest) {
+		return shards.length == 0 ? 0 : Math.floorMod(Objects.hashCode(bookingRequest.getUserId()), shards.length);
+	}
+
+	private int shardOf(String roomId) {
+		Integer shard = shardOfRoom.get(roomId);
+		if (shard == null) {
+			throw BusinessException.UNKNOWN_ROOM;
+		}
+		return shard;
+	}
+
+	private int shardOfHandle(int handle) {
+		if (handle < 0 || handle >= getRoomCount()) {
+			throw BusinessException.ROOM_NOT_AVAILABLE;
+		}
+		int index = Arrays.binarySearch(handleOffsets, handle);
+		return index >= 0 ? index : -index - 2;
+	}
+
+	/**
+	 * Ids without a floor are hashed over one shard per processor.
+	 */
+	private static String floorOf(Room room) {
+		int dot = room.getId().indexOf('.');
+		if (dot < 0) {
+			return "#" + Math.floorMod(room.getId().hashCode(), Runtime.getRuntime().availableProcessors());
+		}
+		return room.getId().substring(0, dot);
+	}
+
+}
@@ -0,0 +1,233 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import com.parmeet.unittest.hotelbookingapp.model.BookingKey;
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import com.parmeet.unittest.hotelbookingapp.model.BookingResult;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Booking requests waiting for a room, indexed by guest count, check-in day and
+ * check-out day. Requests with the same party size and stay share a priority queue
+ * ordered by priority, then by arrival. When a room frees up, {@link #poll} only visits
+ * the party sizes that fit the room and the stays inside the freed nights, so matching
+ * cost depends on the room and the freed stay, not on how many requests are waiting.
+ * <p>
+ * A request waits at most once: adding it again while its entry is pending returns the
+ * pending entry's result.
+ */
+public class Waitlist {
+
+	private static final Comparator<Entry> PRIORITY_ORDER = Comparator
+			.comparingInt((Entry entry) -> -entry.priority)
+			.thenComparingLong(entry -> entry.sequence);
+
+	private final NavigableMap<Integer, NavigableMap<Long, NavigableMap<Long, PriorityQueue<Entry>>>> dated =
+			new TreeMap<>();
+	private final NavigableMap<Integer, PriorityQueue<Entry>> undated = new TreeMap<>();
+	private final Map<BookingKey, Entry> pending = new HashMap<>();
+	private long sequence;
+	private int size;
+
+	public CompletableFuture<BookingResult> add(BookingRequest bookingRequest) {
+		return add(bookingRequest, 0);
+	}
+
+	/**
+	 * @param priority higher values are served first; equal priorities in arrival order
+	 * @return completed with the result once the request is booked from the waitlist; the
+	 * same future for every add of a request that is still waiting
+	 */
+	public synchronized CompletableFuture<BookingResult> add(BookingRequest bookingRequest, int priority) {
+		BookingKey key = BookingKey.of(bookingRequest);
+		Entry waiting = pending.get(key);
+		if (waiting != null) {
+			return waiting.result;
+		}
+		Entry entry = new Entry(bookingRequest, key, priority, sequence++);
+		pending.put(key, entry);
+		queueOf(entry).add(entry);
+		size++;
+		entry.result.whenComplete((result, failure) -> forget(entry));
+		return entry.result;
+	}
+
+	/**
+	 * Removes and returns the best request a freed room can take: the largest party that
+	 * fits {@code capacity}, then the highest priority, then the earliest arrival. A
+	 * dated stay must lie within {@code [dateFrom, dateTo)}; an open-ended room
+	 * ({@code null} dates) is offered to open-ended requests.
+	 *
+	 * @return the entry, or {@code null} if no waiting request fits
+	 */
+	public synchronized Entry poll(int capacity, LocalDate dateFrom, LocalDate dateTo) {
+		Entry best = dateFrom == null || dateTo == null
+				? bestUndated(capacity)
+				: bestDated(capacity, dateFrom.toEpochDay(), dateTo.toEpochDay());
+		if (best != null) {
+			remove(best);
+		}
+		return best;
+	}
+
+	/**
+	 * Puts back an entry taken with {@link #poll} that could not be booked, keeping its
+	 * place in the queue.
+	 */
+	public synchronized void requeue(Entry entry) {
+		queueOf(entry).add(entry);
+		size++;
+	}
+
+	public synchronized boolean cancel(Entry entry) {
+		PriorityQueue<Entry> queue = queueOf(entry);
+		if (!queue.remove(entry)) {
+			return false;
+		}
+		size--;
+		prune(entry, queue);
+		pending.remove(entry.key, entry);
+		return true;
+	}
+
+	/**
+	 * Drops the dated requests checking in before {@code day}, which no freed room can
+	 * serve any more, and completes their entries with {@link BookingResult.NoRoom}.
+	 *
+	 * @return the number of requests dropped
+	 */
+	public int expireBefore(LocalDate day) {
+		long firstDay = day.toEpochDay();
+		List<Entry> expired = new ArrayList<>();
+		synchronized (this) {
+			for (NavigableMap<Long, NavigableMap<Long, PriorityQueue<Entry>>> byCheckIn : dated.values()) {
+				NavigableMap<Long, NavigableMap<Long, PriorityQueue<Entry>>> past = byCheckIn.headMap(firstDay, false);
+				past.values().forEach(byCheckOut -> byCheckOut.values().forEach(expired::addAll));
+				past.clear();
+			}
+			dated.values().removeIf(Map::isEmpty);
+			size -= expired.size();
+		}
+		for (Entry entry : expired) {
+			entry.result.complete(BookingResult.noRoom(entry.bookingRequest));
+		}
+		return expired.size();
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	private synchronized void forget(Entry entry) {
+		pending.remove(entry.key, entry);
+	}
+
+	private Entry bestUndated(int capacity) {
+		for (PriorityQueue<Entry> queue : undated.headMap(capacity, true).descendingMap().values()) {
+			if (!queue.isEmpty()) {
+				return queue.peek();
+			}
+		}
+		return null;
+	}
+
+	private Entry bestDated(int capacity, long from, long to) {
+		for (NavigableMap<Long, NavigableMap<Long, PriorityQueue<Entry>>> byCheckIn
+				: dated.headMap(capacity, true).descendingMap().values()) {
+			Entry best = null;
+			for (NavigableMap<Long, PriorityQueue<Entry>> byCheckOut : byCheckIn.subMap(from, true, to, false).values()) {
+				for (PriorityQueue<Entry> queue : byCheckOut.headMap(to, true).values()) {
+					Entry head = queue.peek();
+					if (head != null && (best == null || PRIORITY_ORDER.compare(head, best) < 0)) {
+						best = head;
+					}
+				}
+			}
+			if (best != null) {
+				return best;
+			}
+		}
+		return null;
+	}
+
+	private void remove(Entry entry) {
+		PriorityQueue<Entry> queue = queueOf(entry);
+		queue.poll();
+		size--;
+		prune(entry, queue);
+	}
+
+	private PriorityQueue<Entry> queueOf(Entry entry) {
+		int guestCount = entry.bookingRequest.getGuestCount();
+		if (!entry.isDated()) {
+			return undated.computeIfAbsent(guestCount, key -> new PriorityQueue<>(PRIORITY_ORDER));
+		}
+		return dated.computeIfAbsent(guestCount, key -> new TreeMap<>())
+				.computeIfAbsent(entry.fromDay, key -> new TreeMap<>())
+				.computeIfAbsent(entry.toDay, key -> new PriorityQueue<>(PRIORITY_ORDER));
+	}
+
+	private void prune(Entry entry, PriorityQueue<Entry> queue) {
+		if (!queue.isEmpty()) {
+			return;
+		}
+		int guestCount = entry.bookingRequest.getGuestCount();
+		if (!entry.isDated()) {
+			undated.remove(guestCount);
+			return;
+		}
+		NavigableMap<Long, NavigableMap<Long, PriorityQueue<Entry>>> byCheckIn = dated.get(guestCount);
+		NavigableMap<Long, PriorityQueue<Entry>> byCheckOut = byCheckIn.get(entry.fromDay);
+		byCheckOut.remove(entry.toDay);
+		if (byCheckOut.isEmpty()) {
+			byCheckIn.remove(entry.fromDay);
+			if (byCheckIn.isEmpty()) {
+				dated.remove(guestCount);
+			}
+		}
+	}
+
+	public static final class Entry {
+
+		private final BookingRequest bookingRequest;
+		private final BookingKey key;
+		private final int priority;
+		private final long sequence;
+		private final long fromDay;
+		private final long toDay;
+		private final CompletableFuture<BookingResult> result = new CompletableFuture<>();
+
+		private Entry(BookingRequest bookingRequest, BookingKey key, int priority, long sequence) {
+			this.bookingRequest = bookingRequest;
+			this.key = key;
+			this.priority = priority;
+			this.sequence = sequence;
+			boolean dated = bookingRequest.getDateFrom() != null && bookingRequest.getDateTo() != null;
+			this.fromDay = dated ? bookingRequest.getDateFrom().toEpochDay() : Long.MIN_VALUE;
+			this.toDay = dated ? bookingRequest.getDateTo().toEpochDay() : Long.MIN_VALUE;
+		}
+
+		public BookingRequest getBookingRequest() {
+			return bookingRequest;
+		}
+
+		public CompletableFuture<BookingResult> getResult() {
+			return result;
+		}
+
+		private boolean isDated() {
+			return fromDay != Long.MIN_VALUE;
+		}
+
+	}
+
+}
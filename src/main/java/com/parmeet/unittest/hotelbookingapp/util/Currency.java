@@ -0,0 +1,29 @@
+package com.parmeet.unittest.hotelbookingapp.util;
+
+public enum Currency {
+	USD(2),
+	EUR(2),
+	GBP(2),
+	CHF(2),
+	JPY(0),
+	CAD(2),
+	AUD(2),
+	INR(2);
+
+	private final int minorDigits;
+	private final long minorPerMajor;
+
+	Currency(int minorDigits) {
+		this.minorDigits = minorDigits;
+		this.minorPerMajor = (long) Math.pow(10, minorDigits);
+	}
+
+	public int getMinorDigits() {
+		return minorDigits;
+	}
+
+	public long getMinorPerMajor() {
+		return minorPerMajor;
+	}
+
+}
@@ -1,11 +1,73 @@
 package com.parmeet.unittest.hotelbookingapp.util;
 
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
 public class CurrencyConverter {
 
 	private static final double USD_TO_EUR_RATE = 0.85;
-	
+
+	private static volatile ExchangeRates rates = defaultRates();
+
 	public static double toEuro(double dollarAmount) {
-		return dollarAmount * USD_TO_EUR_RATE; 
+		return convert(dollarAmount, Currency.USD, Currency.EUR);
+	}
+
+	public static double convert(double amount, Currency from, Currency to) {
+		return amount * rates.rate(from, to);
+	}
+
+	/**
+	 * Converts {@code amounts} into {@code result} with a single rate lookup, so the whole
+	 * list uses one consistent snapshot.
+	 */
+	public static void convertAll(double[] amounts, Currency from, Currency to, double[] result) {
+		double rate = rates.rate(from, to);
+		for (int i = 0; i < amounts.length; i++) {
+			result[i] = amounts[i] * rate;
+		}
+	}
+
+	public static Money convert(Money money, Currency to) {
+		return Money.ofMinor(Math.round(money.getAmountMinor() * minorRate(rates, money.getCurrency(), to)), to);
+	}
+
+	/**
+	 * Minor-unit variant of {@link #convertAll(double[], Currency, Currency, double[])};
+	 * each amount is rounded to the nearest minor unit of {@code to}.
+	 */
+	public static void convertAll(long[] amountsMinor, Currency from, Currency to, long[] result) {
+		double rate = minorRate(rates, from, to);
+		for (int i = 0; i < amountsMinor.length; i++) {
+			result[i] = Math.round(amountsMinor[i] * rate);
+		}
 	}
-	
+
+	public static ExchangeRates getRates() {
+		return rates;
+	}
+
+	/**
+	 * Swaps in a new snapshot. Readers never lock; a conversion in flight finishes on
+	 * the snapshot it started with.
+	 */
+	public static void setRates(ExchangeRates exchangeRates) {
+		rates = exchangeRates;
+	}
+
+	public static void loadRates(Path file) {
+		setRates(ExchangeRates.load(file));
+	}
+
+	private static double minorRate(ExchangeRates exchangeRates, Currency from, Currency to) {
+		return exchangeRates.rate(from, to) * to.getMinorPerMajor() / from.getMinorPerMajor();
+	}
+
+	private static ExchangeRates defaultRates() {
+		Map<Currency, Double> unitsPerUsd = new EnumMap<>(Currency.class);
+		unitsPerUsd.put(Currency.EUR, USD_TO_EUR_RATE);
+		return ExchangeRates.of(unitsPerUsd);
+	}
+
 }
@@ -0,0 +1,70 @@
+package com.parmeet.unittest.hotelbookingapp.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Immutable snapshot of exchange rates. Rates are given as units per US dollar and
+ * expanded into a cross-rate matrix indexed by currency ordinal, so a conversion is one
+ * array read and one multiplication.
+ */
+public class ExchangeRates {
+
+	private static final int CURRENCIES = Currency.values().length;
+
+	private final double[] crossRates;
+
+	private ExchangeRates(double[] unitsPerUsd) {
+		this.crossRates = new double[CURRENCIES * CURRENCIES];
+		for (int from = 0; from < CURRENCIES; from++) {
+			for (int to = 0; to < CURRENCIES; to++) {
+				// a currency converts to itself even without a rate in the snapshot
+				crossRates[from * CURRENCIES + to] = from == to ? 1.0 : unitsPerUsd[to] / unitsPerUsd[from];
+			}
+		}
+	}
+
+	/**
+	 * @param unitsPerUsd rate per currency; currencies without a rate cannot be converted
+	 */
+	public static ExchangeRates of(Map<Currency, Double> unitsPerUsd) {
+		double[] rates = new double[CURRENCIES];
+		Arrays.fill(rates, Double.NaN);
+		rates[Currency.USD.ordinal()] = 1.0;
+		unitsPerUsd.forEach((currency, rate) -> rates[currency.ordinal()] = rate);
+		return new ExchangeRates(rates);
+	}
+
+	/**
+	 * Reads a properties file of units per US dollar, e.g. {@code EUR=0.85}.
+	 */
+	public static ExchangeRates load(Path file) {
+		Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(file)) {
+			properties.load(reader);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		Map<Currency, Double> unitsPerUsd = new EnumMap<>(Currency.class);
+		for (String name : properties.stringPropertyNames()) {
+			unitsPerUsd.put(Currency.valueOf(name.trim()), Double.parseDouble(properties.getProperty(name).trim()));
+		}
+		return of(unitsPerUsd);
+	}
+
+	public double rate(Currency from, Currency to) {
+		double rate = crossRates[from.ordinal() * CURRENCIES + to.ordinal()];
+		if (Double.isNaN(rate)) {
+			throw new IllegalArgumentException("No exchange rate from " + from + " to " + to);
+		}
+		return rate;
+	}
+
+}
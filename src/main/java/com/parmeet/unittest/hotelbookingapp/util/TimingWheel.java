@@ -0,0 +1,219 @@
+package com.parmeet.unittest.hotelbookingapp.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Hierarchical timing wheel for large numbers of short timeouts. Each level is a ring
+ * of buckets, level {@code i} spanning {@code wheelSize^(i+1)} ticks; a timeout goes to
+ * the lowest level that covers its delay, and a higher-level bucket is cascaded down
+ * when the level below wraps around. Scheduling and cancelling are O(1) list
+ * operations, and one timer thread drives every timeout instead of one scheduled task
+ * each.
+ * <p>
+ * Expired tasks run on the thread that advances the wheel, outside the wheel's lock,
+ * and should therefore be short.
+ */
+public class TimingWheel implements AutoCloseable {
+
+	private static final int LEVELS = 4;
+
+	private final long tickMillis;
+	private final int wheelSize;
+	private final LongSupplier clock;
+	private final Timeout[][] buckets;
+	private final long[] levelSpans;
+	private long currentTick;
+	private ScheduledExecutorService driver;
+
+	public TimingWheel(long tickMillis, int wheelSize) {
+		this(tickMillis, wheelSize, System::currentTimeMillis);
+	}
+
+	/**
+	 * @param clock milliseconds source, replaceable for tests that advance time by hand
+	 */
+	public TimingWheel(long tickMillis, int wheelSize, LongSupplier clock) {
+		this.tickMillis = tickMillis;
+		this.wheelSize = wheelSize;
+		this.clock = clock;
+		this.buckets = new Timeout[LEVELS][wheelSize];
+		this.levelSpans = new long[LEVELS + 1];
+		levelSpans[0] = 1;
+		for (int level = 0; level < LEVELS; level++) {
+			levelSpans[level + 1] = Math.multiplyExact(levelSpans[level], wheelSize);
+			for (int bucket = 0; bucket < wheelSize; bucket++) {
+				buckets[level][bucket] = Timeout.sentinel();
+			}
+		}
+		this.currentTick = clock.getAsLong() / tickMillis;
+	}
+
+	/**
+	 * Advances the wheel from a daemon thread every tick.
+	 */
+	public synchronized TimingWheel start() {
+		if (driver == null) {
+			driver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "timing-wheel");
+				thread.setDaemon(true);
+				return thread;
+			});
+			driver.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+		}
+		return this;
+	}
+
+	/**
+	 * Runs {@code task} once {@code delayMillis} have passed, rounded up to the tick.
+	 */
+	public Timeout schedule(Runnable task, long delayMillis) {
+		long deadlineTick = (clock.getAsLong() + delayMillis + tickMillis - 1) / tickMillis;
+		Timeout timeout = new Timeout(this, task, deadlineTick);
+		boolean due;
+		synchronized (this) {
+			due = !place(timeout);
+		}
+		if (due) {
+			timeout.task.run();
+		}
+		return timeout;
+	}
+
+	/**
+	 * Expires every timeout due by the current time.
+	 */
+	public void advance() {
+		long nowTick = clock.getAsLong() / tickMillis;
+		List<Timeout> expired = new ArrayList<>();
+		synchronized (this) {
+			while (currentTick < nowTick) {
+				currentTick++;
+				for (int level = LEVELS - 1; level > 0; level--) {
+					if (currentTick % levelSpans[level] == 0) {
+						cascade(buckets[level][(int) (currentTick / levelSpans[level] % wheelSize)], expired);
+					}
+				}
+				drain(buckets[0][(int) (currentTick % wheelSize)], expired);
+			}
+		}
+		for (Timeout timeout : expired) {
+			timeout.task.run();
+		}
+	}
+
+	public synchronized int size() {
+		int size = 0;
+		for (Timeout[] level : buckets) {
+			for (Timeout sentinel : level) {
+				for (Timeout timeout = sentinel.next; timeout != sentinel; timeout = timeout.next) {
+					size++;
+				}
+			}
+		}
+		return size;
+	}
+
+	@Override
+	public synchronized void close() {
+		if (driver != null) {
+			driver.shutdown();
+			driver = null;
+		}
+	}
+
+	/**
+	 * @return false if the timeout is already due
+	 */
+	private boolean place(Timeout timeout) {
+		long delta = timeout.deadlineTick - currentTick;
+		if (delta <= 0) {
+			return false;
+		}
+		int level = 0;
+		while (level < LEVELS - 1 && delta >= levelSpans[level + 1]) {
+			level++;
+		}
+		// beyond the top level's span the timeout waits in its furthest bucket and is re-placed on cascade
+		long tick = Math.min(timeout.deadlineTick, currentTick + levelSpans[LEVELS] - 1);
+		timeout.linkBefore(buckets[level][(int) (tick / levelSpans[level] % wheelSize)]);
+		return true;
+	}
+
+	private void cascade(Timeout sentinel, List<Timeout> expired) {
+		Timeout timeout = sentinel.next;
+		while (timeout != sentinel) {
+			Timeout next = timeout.next;
+			timeout.unlink();
+			if (!place(timeout)) {
+				expired.add(timeout);
+			}
+			timeout = next;
+		}
+	}
+
+	private void drain(Timeout sentinel, List<Timeout> expired) {
+		Timeout timeout = sentinel.next;
+		while (timeout != sentinel) {
+			Timeout next = timeout.next;
+			timeout.unlink();
+			expired.add(timeout);
+			timeout = next;
+		}
+	}
+
+	public static final class Timeout {
+
+		private final TimingWheel wheel;
+		private final Runnable task;
+		private final long deadlineTick;
+		private Timeout prev;
+		private Timeout next;
+
+		private Timeout(TimingWheel wheel, Runnable task, long deadlineTick) {
+			this.wheel = wheel;
+			this.task = task;
+			this.deadlineTick = deadlineTick;
+		}
+
+		private static Timeout sentinel() {
+			Timeout sentinel = new Timeout(null, null, 0);
+			sentinel.prev = sentinel;
+			sentinel.next = sentinel;
+			return sentinel;
+		}
+
+		/**
+		 * @return false if the timeout already fired or was cancelled
+		 */
+		public boolean cancel() {
+			synchronized (wheel) {
+				if (next == null) {
+					return false;
+				}
+				unlink();
+				return true;
+			}
+		}
+
+		private void linkBefore(Timeout sentinel) {
+			prev = sentinel.prev;
+			next = sentinel;
+			sentinel.prev.next = this;
+			sentinel.prev = this;
+		}
+
+		private void unlink() {
+			prev.next = next;
+			next.prev = prev;
+			prev = null;
+			next = null;
+		}
+
+	}
+
+}
@@ -0,0 +1,101 @@
+package com.parmeet.unittest.hotelbookingapp.analytics;
+
+import com.parmeet.unittest.hotelbookingapp.dao.BookingDAO;
+import com.parmeet.unittest.hotelbookingapp.dao.BookingStore;
+import com.parmeet.unittest.hotelbookingapp.dao.MappedBookingDAO;
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import com.parmeet.unittest.hotelbookingapp.service.RateTable;
+import com.parmeet.unittest.hotelbookingapp.util.Currency;
+import com.parmeet.unittest.hotelbookingapp.util.Money;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingAnalyticsTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2022, 9, 26);
+
+    private static void saveBookings(BookingStore bookingDAO) {
+        save(bookingDAO, "1.1", 0, 2, 2);
+        save(bookingDAO, "1.2", 1, 4, 1);
+        save(bookingDAO, "1.1", 3, 4, 2);
+        bookingDAO.save(new BookingRequest("4", null, null, 2, false));
+    }
+
+    private static void save(BookingStore bookingDAO, String roomId, int fromDay, int toDay, int guestCount) {
+        var bookingRequest = new BookingRequest("1", MONDAY.plusDays(fromDay), MONDAY.plusDays(toDay),
+                guestCount, false);
+        bookingRequest.setRoomId(roomId);
+        bookingDAO.save(bookingRequest);
+    }
+
+    @Test
+    void should_CountOccupiedRoomsPerNight() {
+        // given
+        var bookingDAO = new BookingDAO();
+        saveBookings(bookingDAO);
+        var analytics = new BookingAnalytics(BookingColumns.of(bookingDAO));
+
+        // when
+        var occupancy = analytics.occupancyPerNight(MONDAY, MONDAY.plusDays(5));
+
+        // then
+        assertArrayEquals(new int[]{1, 2, 1, 2, 0}, occupancy);
+    }
+
+    @Test
+    void should_SumRevenuePerRoom() {
+        // given
+        var bookingDAO = new MappedBookingDAO(16);
+        saveBookings(bookingDAO);
+        var columns = BookingColumns.of(bookingDAO);
+        var analytics = new BookingAnalytics(columns);
+
+        // when
+        var revenue = analytics.revenuePerRoomMinor(RateTable.flat(50.0));
+
+        // then
+        assertEquals(3, columns.size());
+        assertEquals("1.1", columns.getRoomId(0));
+        assertArrayEquals(new long[]{30000, 15000}, revenue);
+        assertEquals(Money.of(450.0, Currency.USD), analytics.totalRevenue(RateTable.flat(50.0)));
+    }
+
+    @Test
+    void should_AverageNightsPerStay() {
+        // given
+        var bookingDAO = new BookingDAO();
+        saveBookings(bookingDAO);
+        var analytics = new BookingAnalytics(BookingColumns.of(bookingDAO));
+
+        // when
+        var averageLengthOfStay = analytics.averageLengthOfStay();
+
+        // then
+        assertEquals(2.0, averageLengthOfStay, 1e-9);
+    }
+
+    @Test
+    void should_CountEveryRoom_When_GroupBooked() {
+        // given
+        var bookingDAO = new BookingDAO();
+        var bookingRequest = new BookingRequest("1", MONDAY, MONDAY.plusDays(2), 5, false);
+        bookingRequest.setRoomIds(List.of("1.1", "1.2"));
+        bookingDAO.save(bookingRequest);
+        var columns = BookingColumns.of(bookingDAO);
+        var analytics = new BookingAnalytics(columns);
+
+        // when
+        var occupancy = analytics.occupancyPerNight(MONDAY, MONDAY.plusDays(2));
+        var revenue = analytics.revenuePerRoomMinor(RateTable.flat(50.0));
+
+        // then
+        assertEquals(2, columns.size());
+        assertArrayEquals(new int[]{2, 2}, occupancy);
+        assertArrayEquals(new long[]{30000, 20000}, revenue);
+    }
+
+}
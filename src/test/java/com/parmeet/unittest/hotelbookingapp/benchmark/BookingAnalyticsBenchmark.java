@@ -0,0 +1,52 @@
+package com.parmeet.unittest.hotelbookingapp.benchmark;
+
+import com.parmeet.unittest.hotelbookingapp.analytics.BookingAnalytics;
+import com.parmeet.unittest.hotelbookingapp.analytics.BookingColumns;
+import com.parmeet.unittest.hotelbookingapp.service.RatePlan;
+import com.parmeet.unittest.hotelbookingapp.service.RateTable;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Times the analytics reports over 10M generated bookings, on one thread and on all
+ * cores. One operation is one booking scanned.
+ */
+public class BookingAnalyticsBenchmark {
+
+	private static final int BOOKINGS = 10_000_000;
+	private static final int ROOMS = 500;
+	private static final LocalDate FIRST_NIGHT = LocalDate.of(2023, 1, 1);
+	private static final LocalDate LAST_NIGHT = LocalDate.of(2024, 1, 1);
+
+	public static void main(String[] args) {
+		BookingColumns columns = generate();
+		RateTable rateTable = RateTable.compile(new RatePlan(50.0)
+				.season(LocalDate.of(2023, 7, 1), LocalDate.of(2023, 9, 1), 80.0)
+				.weekendUplift(0.25), FIRST_NIGHT, LAST_NIGHT);
+		run("1 thread", new BookingAnalytics(columns, new ForkJoinPool(1)), rateTable);
+		run(ForkJoinPool.getCommonPoolParallelism() + 1 + " threads", new BookingAnalytics(columns), rateTable);
+	}
+
+	private static void run(String name, BookingAnalytics analytics, RateTable rateTable) {
+		Harness.throughput("occupancy " + name, BOOKINGS,
+				() -> Harness.consume(analytics.occupancyPerNight(FIRST_NIGHT, LAST_NIGHT)[180]));
+		Harness.throughput("revenue " + name, BOOKINGS,
+				() -> Harness.consume(analytics.revenuePerRoomMinor(rateTable)[0]));
+		Harness.throughput("length of stay " + name, BOOKINGS,
+				() -> Harness.consume(Double.doubleToLongBits(analytics.averageLengthOfStay())));
+	}
+
+	private static BookingColumns generate() {
+		Random random = new Random(42);
+		int firstDay = Math.toIntExact(FIRST_NIGHT.toEpochDay());
+		BookingColumns.Builder builder = new BookingColumns.Builder(BOOKINGS);
+		for (int i = 0; i < BOOKINGS; i++) {
+			int from = firstDay + random.nextInt(365);
+			builder.add(from, from + 1 + random.nextInt(7), 1 + random.nextInt(4), "room-" + random.nextInt(ROOMS));
+		}
+		return builder.build();
+	}
+
+}
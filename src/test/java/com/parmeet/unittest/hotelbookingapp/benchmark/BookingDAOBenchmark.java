@@ -0,0 +1,76 @@
+package com.parmeet.unittest.hotelbookingapp.benchmark;
+
+import com.parmeet.unittest.hotelbookingapp.dao.BookingDAO;
+import com.parmeet.unittest.hotelbookingapp.dao.BookingStore;
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Multi-threaded save/get/delete throughput of {@link BookingDAO} against the previous
+ * design: a synchronized {@code HashMap} with {@code UUID.randomUUID()} ids.
+ */
+public class BookingDAOBenchmark {
+
+	private static final int OPERATIONS_PER_THREAD = 500_000;
+
+	static class UuidHashMapStore implements BookingStore {
+
+		private final Map<String, BookingRequest> bookings = Collections.synchronizedMap(new HashMap<>());
+
+		@Override
+		public String save(BookingRequest bookingRequest) {
+			String id = UUID.randomUUID().toString();
+			bookings.put(id, bookingRequest);
+			return id;
+		}
+
+		@Override
+		public BookingRequest get(String id) {
+			return bookings.get(id);
+		}
+
+		@Override
+		public void delete(String id) {
+			bookings.remove(id);
+		}
+
+		@Override
+		public int size() {
+			return bookings.size();
+		}
+
+		@Override
+		public void forEach(BiConsumer<String, BookingRequest> action) {
+			synchronized (bookings) {
+				bookings.forEach(action);
+			}
+		}
+	}
+
+	public static void main(String[] args) {
+		int maxThreads = Runtime.getRuntime().availableProcessors();
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			run("uuid+synchronized", new UuidHashMapStore(), threads);
+			run("BookingDAO", new BookingDAO(), threads);
+		}
+	}
+
+	private static void run(String name, BookingStore store, int threads) {
+		BookingRequest bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+				LocalDate.of(2022, 10, 1), 2, false);
+		Harness.throughput(name + " threads=" + threads, threads, OPERATIONS_PER_THREAD, thread -> {
+			for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+				String id = store.save(bookingRequest);
+				Harness.consume(store.get(id));
+				store.delete(id);
+			}
+		});
+	}
+
+}
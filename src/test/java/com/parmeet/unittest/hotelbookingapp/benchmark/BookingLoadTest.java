@@ -0,0 +1,114 @@
+package com.parmeet.unittest.hotelbookingapp.benchmark;
+
+import com.parmeet.unittest.hotelbookingapp.dao.BookingDAO;
+import com.parmeet.unittest.hotelbookingapp.external.MailSender;
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import com.parmeet.unittest.hotelbookingapp.model.Room;
+import com.parmeet.unittest.hotelbookingapp.service.AsyncBookingService;
+import com.parmeet.unittest.hotelbookingapp.service.BookingService;
+import com.parmeet.unittest.hotelbookingapp.service.PaymentService;
+import com.parmeet.unittest.hotelbookingapp.service.RoomService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires concurrent bookings through {@link AsyncBookingService} with simulated payment
+ * and mail latency, once on a fixed platform thread pool and once on virtual threads,
+ * and reports throughput and latency percentiles.
+ */
+public class BookingLoadTest {
+
+	private static final int REQUESTS = 20_000;
+	private static final int PLATFORM_THREADS = 200;
+	private static final long PAYMENT_LATENCY_MILLIS = 5;
+	private static final long MAIL_LATENCY_MILLIS = 2;
+
+	public static void main(String[] args) throws Exception {
+		run("platform(" + PLATFORM_THREADS + ")", Executors.newFixedThreadPool(PLATFORM_THREADS));
+		if (AsyncBookingService.isVirtualThreadSupported()) {
+			run("virtual", AsyncBookingService.newVirtualThreadExecutor());
+		} else {
+			System.out.println("virtual: not available before Java 21, skipped");
+		}
+	}
+
+	private static void run(String name, ExecutorService executor) throws Exception {
+		List<Room> rooms = new ArrayList<>();
+		for (int i = 0; i < 2_000; i++) {
+			rooms.add(new Room("room-" + i, 2));
+		}
+		BookingService bookingService = new BookingService(new SlowPaymentService(), new RoomService(rooms),
+				new BookingDAO(), new SlowMailSender());
+		long[] latencies = new long[REQUESTS];
+		AtomicInteger failures = new AtomicInteger();
+		List<CompletableFuture<String>> futures = new ArrayList<>(REQUESTS);
+
+		long start = System.nanoTime();
+		try (AsyncBookingService asyncBookingService = new AsyncBookingService(bookingService, executor)) {
+			for (int i = 0; i < REQUESTS; i++) {
+				int request = i;
+				long submitted = System.nanoTime();
+				futures.add(asyncBookingService.makeBooking(randomRequest())
+						.whenComplete((bookingId, failure) -> {
+							latencies[request] = System.nanoTime() - submitted;
+							if (failure != null) {
+								failures.incrementAndGet();
+							}
+						}));
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+					.exceptionally(failure -> null)
+					.join();
+		}
+		long elapsed = System.nanoTime() - start;
+
+		Arrays.sort(latencies);
+		System.out.printf("%-14s %,8.0f bookings/s  p50=%.1fms p99=%.1fms p99.9=%.1fms  failed=%d%n",
+				name, REQUESTS * 1e9 / elapsed,
+				percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+				failures.get());
+	}
+
+	private static BookingRequest randomRequest() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		LocalDate dateFrom = LocalDate.of(2023, 1, 1).plusDays(random.nextInt(365));
+		return new BookingRequest("user-" + random.nextInt(100_000), dateFrom,
+				dateFrom.plusDays(1 + random.nextInt(2)), 2, true);
+	}
+
+	private static double percentile(long[] sortedNanos, double percentile) {
+		return sortedNanos[(int) Math.min(sortedNanos.length - 1, sortedNanos.length * percentile)] / 1e6;
+	}
+
+	private static void pause(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	static class SlowPaymentService extends PaymentService {
+		@Override
+		public String pay(BookingRequest bookingRequest, double price) {
+			pause(PAYMENT_LATENCY_MILLIS);
+			return super.pay(bookingRequest, price);
+		}
+	}
+
+	static class SlowMailSender extends MailSender {
+		@Override
+		public void sendBookingConfirmation(String bookingId) {
+			pause(MAIL_LATENCY_MILLIS);
+		}
+	}
+
+}
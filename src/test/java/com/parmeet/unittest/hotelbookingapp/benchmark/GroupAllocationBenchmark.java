@@ -0,0 +1,42 @@
+package com.parmeet.unittest.hotelbookingapp.benchmark;
+
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import com.parmeet.unittest.hotelbookingapp.model.Room;
+import com.parmeet.unittest.hotelbookingapp.service.RoomService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Latency of splitting a large party with {@link RoomService#tryClaimRooms} when
+ * thousands of rooms of many sizes are free. Each claim should return close to the
+ * search budget, however many rooms there are.
+ */
+public class GroupAllocationBenchmark {
+
+	private static final int ROOM_COUNT = 5_000;
+	private static final int GUEST_COUNT = 997;
+	private static final long BUDGET_NANOS = 2_000_000;
+	private static final int ROUNDS = 200;
+
+	public static void main(String[] args) {
+		Harness.measure(String.format("claim rooms=%,d guests=%,d", ROOM_COUNT, GUEST_COUNT), 1, ROUNDS, () -> {
+			RoomService roomService = new RoomService(rooms());
+			BookingRequest bookingRequest = new BookingRequest("1", null, null, GUEST_COUNT, false);
+			long start = System.nanoTime();
+			if (roomService.tryClaimRooms(bookingRequest, BUDGET_NANOS) == null) {
+				throw new IllegalStateException("Party did not fit");
+			}
+			return System.nanoTime() - start;
+		});
+	}
+
+	private static List<Room> rooms() {
+		List<Room> rooms = new ArrayList<>(ROOM_COUNT);
+		for (int i = 0; i < ROOM_COUNT; i++) {
+			rooms.add(new Room("room-" + i, 1 + i % 40));
+		}
+		return rooms;
+	}
+
+}
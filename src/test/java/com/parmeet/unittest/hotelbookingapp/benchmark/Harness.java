@@ -0,0 +1,124 @@
+package com.parmeet.unittest.hotelbookingapp.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Warm-up-then-measure harness shared by the benchmarks in this package. JMH is not on
+ * the build path, so this covers what the benchmarks need from it: warm-up iterations
+ * for the JIT to settle, several measured iterations reported as a mean with the best
+ * and worst iteration, threads released together for contended runs, and a sink that
+ * keeps results from being optimized away.
+ */
+final class Harness {
+
+	static final int WARMUP_ITERATIONS = 3;
+	static final int MEASUREMENT_ITERATIONS = 5;
+
+	private static volatile long sink;
+
+	interface Iteration {
+		void run() throws Exception;
+	}
+
+	interface ThreadIteration {
+		void run(int thread) throws Exception;
+	}
+
+	/**
+	 * One iteration that does its own set-up and times only the measured part.
+	 */
+	interface TimedIteration {
+
+		/**
+		 * @return the nanoseconds the measured part took
+		 */
+		long run() throws Exception;
+	}
+
+	private Harness() {
+	}
+
+	static void throughput(String label, long operations, Iteration iteration) {
+		measure(label, operations, MEASUREMENT_ITERATIONS, () -> {
+			long start = System.nanoTime();
+			iteration.run();
+			return System.nanoTime() - start;
+		});
+	}
+
+	/**
+	 * Runs {@code iteration} on {@code threads} threads released at the same moment and
+	 * times them until the last one finishes.
+	 */
+	static void throughput(String label, int threads, long operationsPerThread, ThreadIteration iteration) {
+		measure(label, threads * operationsPerThread, MEASUREMENT_ITERATIONS, () -> runThreads(threads, iteration));
+	}
+
+	static void measure(String label, long operations, TimedIteration iteration) {
+		measure(label, operations, MEASUREMENT_ITERATIONS, iteration);
+	}
+
+	static void measure(String label, long operations, int iterations, TimedIteration iteration) {
+		try {
+			for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+				iteration.run();
+			}
+			long total = 0;
+			long best = Long.MAX_VALUE;
+			long worst = 0;
+			for (int i = 0; i < iterations; i++) {
+				long elapsed = iteration.run();
+				total += elapsed;
+				best = Math.min(best, elapsed);
+				worst = Math.max(worst, elapsed);
+			}
+			double mean = (double) total / iterations;
+			System.out.printf("%-36s %,14.0f ops/s %,12.1f ns/op  (best %,.1f, worst %,.1f ns/op, %d iterations)%n",
+					label, operations * 1e9 / mean, mean / operations, (double) best / operations,
+					(double) worst / operations, iterations);
+		} catch (Exception e) {
+			throw new IllegalStateException("Benchmark " + label + " failed", e);
+		}
+	}
+
+	/**
+	 * Keeps {@code value} alive, so the JIT cannot drop the computation behind it.
+	 */
+	static void consume(long value) {
+		sink ^= value;
+	}
+
+	static void consume(Object value) {
+		consume(System.identityHashCode(value));
+	}
+
+	private static long runThreads(int threads, ThreadIteration iteration) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicReference<Exception> failure = new AtomicReference<>();
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			int thread = t;
+			workers[t] = new Thread(() -> {
+				try {
+					start.await();
+					iteration.run(thread);
+				} catch (Exception e) {
+					failure.compareAndSet(null, e);
+				}
+			});
+			workers[t].start();
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		long elapsed = System.nanoTime() - begin;
+		if (failure.get() != null) {
+			throw failure.get();
+		}
+		return elapsed;
+	}
+
+}
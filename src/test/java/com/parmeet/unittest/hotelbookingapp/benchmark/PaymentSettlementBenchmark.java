@@ -0,0 +1,37 @@
+package com.parmeet.unittest.hotelbookingapp.benchmark;
+
+import com.parmeet.unittest.hotelbookingapp.external.FakePaymentProcessor;
+import com.parmeet.unittest.hotelbookingapp.service.PaymentSettlement;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Settlement throughput against a fake acquirer with a fixed round-trip latency,
+ * for growing batch sizes.
+ */
+public class PaymentSettlementBenchmark {
+
+	private static final int[] BATCH_SIZES = {1, 10, 50, 200};
+	private static final int CHARGES = 20_000;
+	private static final long LATENCY_MILLIS = 5;
+	private static final long WINDOW_MILLIS = 2;
+	private static final int CONCURRENCY = 4;
+
+	public static void main(String[] args) {
+		for (int batchSize : BATCH_SIZES) {
+			Harness.throughput("settle batch=" + batchSize, CHARGES, () -> {
+				FakePaymentProcessor processor = new FakePaymentProcessor(LATENCY_MILLIS);
+				CompletableFuture<?>[] futures = new CompletableFuture<?>[CHARGES];
+				try (PaymentSettlement settlement = new PaymentSettlement(processor, batchSize, WINDOW_MILLIS,
+						CONCURRENCY)) {
+					for (int i = 0; i < CHARGES; i++) {
+						futures[i] = settlement.submit("charge-" + i, 10_000);
+					}
+					CompletableFuture.allOf(futures).join();
+				}
+				Harness.consume(processor.getRoundTrips());
+			});
+		}
+	}
+
+}
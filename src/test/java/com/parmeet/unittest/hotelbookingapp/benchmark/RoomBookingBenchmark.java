@@ -0,0 +1,43 @@
+package com.parmeet.unittest.hotelbookingapp.benchmark;
+
+import com.parmeet.unittest.hotelbookingapp.model.Room;
+import com.parmeet.unittest.hotelbookingapp.service.RoomService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Book/unbook throughput of {@link RoomService} for growing inventories.
+ * Throughput should stay flat because id lookup no longer depends on the room count.
+ */
+public class RoomBookingBenchmark {
+
+	private static final int[] ROOM_COUNTS = {5, 1_000, 100_000, 1_000_000};
+	private static final int OPERATIONS = 2_000_000;
+
+	public static void main(String[] args) {
+		for (int roomCount : ROOM_COUNTS) {
+			RoomService roomService = new RoomService(rooms(roomCount));
+			String[] roomIds = new String[Math.min(roomCount, 1024)];
+			for (int i = 0; i < roomIds.length; i++) {
+				roomIds[i] = "room-" + (long) i * roomCount / roomIds.length;
+			}
+			Harness.throughput(String.format("book+unbook rooms=%,d", roomCount), OPERATIONS, () -> {
+				for (int i = 0; i < OPERATIONS; i++) {
+					String roomId = roomIds[i % roomIds.length];
+					roomService.bookRoom(roomId);
+					roomService.unbookRoom(roomId);
+				}
+			});
+		}
+	}
+
+	private static List<Room> rooms(int count) {
+		List<Room> rooms = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			rooms.add(new Room("room-" + i, 1 + i % 5));
+		}
+		return rooms;
+	}
+
+}
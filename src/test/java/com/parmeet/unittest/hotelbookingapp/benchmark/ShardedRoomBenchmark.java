@@ -0,0 +1,51 @@
+package com.parmeet.unittest.hotelbookingapp.benchmark;
+
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import com.parmeet.unittest.hotelbookingapp.model.Room;
+import com.parmeet.unittest.hotelbookingapp.service.RoomInventory;
+import com.parmeet.unittest.hotelbookingapp.service.RoomService;
+import com.parmeet.unittest.hotelbookingapp.service.ShardedRoomService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Multi-threaded claim/release throughput of one {@link RoomService} against a
+ * {@link ShardedRoomService} with one shard per floor.
+ */
+public class ShardedRoomBenchmark {
+
+	private static final int FLOORS = 16;
+	private static final int ROOMS_PER_FLOOR = 1_000;
+	private static final int OPERATIONS_PER_THREAD = 200_000;
+
+	public static void main(String[] args) {
+		int maxThreads = Runtime.getRuntime().availableProcessors();
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			run("RoomService", new RoomService(rooms()), threads);
+			try (ShardedRoomService shardedRoomService = new ShardedRoomService(rooms())) {
+				run("ShardedRoomService", shardedRoomService, threads);
+			}
+		}
+	}
+
+	private static void run(String name, RoomInventory roomService, int threads) {
+		Harness.throughput(name + " threads=" + threads, threads, OPERATIONS_PER_THREAD, thread -> {
+			BookingRequest bookingRequest = new BookingRequest("user-" + thread, null, null, 2, false);
+			for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+				roomService.unbookRoom(roomService.claimRoom(bookingRequest));
+			}
+		});
+	}
+
+	private static List<Room> rooms() {
+		List<Room> rooms = new ArrayList<>(FLOORS * ROOMS_PER_FLOOR);
+		for (int floor = 1; floor <= FLOORS; floor++) {
+			for (int room = 1; room <= ROOMS_PER_FLOOR; room++) {
+				rooms.add(new Room(floor + "." + room, 2));
+			}
+		}
+		return rooms;
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.parmeet.unittest.hotelbookingapp.benchmark;
+
+import com.parmeet.unittest.hotelbookingapp.util.TimingWheel;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of creating, cancelling and expiring millions of hold-style timeouts on a
+ * {@link TimingWheel} driven by a simulated clock. Every other timeout is cancelled;
+ * the rest expire.
+ */
+public class TimingWheelBenchmark {
+
+	private static final int TIMEOUTS = 2_000_000;
+	private static final long HOLD_MILLIS = 15 * 60_000;
+
+	public static void main(String[] args) {
+		Harness.measure("schedule", TIMEOUTS, () -> new Wheel().schedule());
+		Harness.measure("cancel", TIMEOUTS / 2, () -> {
+			Wheel wheel = new Wheel();
+			wheel.schedule();
+			return wheel.cancel();
+		});
+		Harness.measure("expire", TIMEOUTS / 2, () -> {
+			Wheel wheel = new Wheel();
+			wheel.schedule();
+			wheel.cancel();
+			return wheel.expire();
+		});
+	}
+
+	private static class Wheel {
+
+		private final AtomicLong now = new AtomicLong();
+		private final AtomicLong expired = new AtomicLong();
+		private final TimingWheel timingWheel = new TimingWheel(100, 512, now::get);
+		private final TimingWheel.Timeout[] timeouts = new TimingWheel.Timeout[TIMEOUTS];
+
+		long schedule() {
+			Runnable task = expired::incrementAndGet;
+			long start = System.nanoTime();
+			for (int i = 0; i < TIMEOUTS; i++) {
+				timeouts[i] = timingWheel.schedule(task, HOLD_MILLIS + ThreadLocalRandom.current().nextLong(60_000));
+			}
+			return System.nanoTime() - start;
+		}
+
+		long cancel() {
+			long start = System.nanoTime();
+			for (int i = 0; i < TIMEOUTS; i += 2) {
+				timeouts[i].cancel();
+			}
+			return System.nanoTime() - start;
+		}
+
+		long expire() {
+			long start = System.nanoTime();
+			while (expired.get() < TIMEOUTS / 2) {
+				now.addAndGet(100);
+				timingWheel.advance();
+			}
+			return System.nanoTime() - start;
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.parmeet.unittest.hotelbookingapp.benchmark;
+
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import com.parmeet.unittest.hotelbookingapp.service.Waitlist;
+
+import java.time.LocalDate;
+
+/**
+ * Average {@link Waitlist#poll} latency for a week-long freed room against growing
+ * numbers of waiting requests. Latency should stay flat because a poll only visits the
+ * party sizes and stays the freed room can take.
+ */
+public class WaitlistBenchmark {
+
+	private static final LocalDate MONDAY = LocalDate.of(2022, 9, 26);
+	private static final int[] WAITING_COUNTS = {1_000, 100_000, 1_000_000};
+	private static final int POLLS = 1_000;
+
+	public static void main(String[] args) {
+		for (int waiting : WAITING_COUNTS) {
+			Harness.measure(String.format("poll waiting=%,d", waiting), POLLS, () -> {
+				Waitlist waitlist = waitlist(waiting);
+				long start = System.nanoTime();
+				Harness.consume(poll(waitlist));
+				return System.nanoTime() - start;
+			});
+		}
+	}
+
+	private static Waitlist waitlist(int waiting) {
+		Waitlist waitlist = new Waitlist();
+		for (int i = 0; i < waiting; i++) {
+			int fromDay = i % 365;
+			waitlist.add(new BookingRequest("user-" + i, MONDAY.plusDays(fromDay), MONDAY.plusDays(fromDay + 1 + i % 7),
+					1 + i % 5, false));
+		}
+		return waitlist;
+	}
+
+	private static int poll(Waitlist waitlist) {
+		int matched = 0;
+		for (int i = 0; i < POLLS; i++) {
+			int fromDay = i % 358;
+			if (waitlist.poll(4, MONDAY.plusDays(fromDay), MONDAY.plusDays(fromDay + 7)) != null) {
+				matched++;
+			}
+		}
+		return matched;
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.parmeet.unittest.hotelbookingapp.dao;
+
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingDAOTest {
+
+    private final BookingDAO bookingDAO = new BookingDAO();
+
+    private final BookingRequest bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+            LocalDate.of(2022, 10, 1), 2, false);
+
+    @Test
+    void should_ReturnSavedBooking_When_IdKnown() {
+        // when
+        var bookingId = bookingDAO.save(bookingRequest);
+
+        // then
+        assertSame(bookingRequest, bookingDAO.get(bookingId));
+    }
+
+    @Test
+    void should_ForgetBooking_When_Deleted() {
+        // given
+        var bookingId = bookingDAO.save(bookingRequest);
+
+        // when
+        bookingDAO.delete(bookingId);
+
+        // then
+        assertNull(bookingDAO.get(bookingId));
+    }
+
+    @Test
+    void should_GenerateUniqueIds_When_SavingConcurrently() throws Exception {
+        // given
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        var saves = new ArrayList<Callable<Void>>();
+        for (int t = 0; t < 8; t++) {
+            saves.add(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    ids.add(bookingDAO.save(bookingRequest));
+                }
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when
+        List<Future<Void>> results;
+        try {
+            results = executor.invokeAll(saves);
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        for (Future<Void> result : results) {
+            result.get();
+        }
+        assertEquals(8 * 5000, ids.size());
+    }
+
+    @Test
+    void should_GenerateIncreasingIds() {
+        // given
+        var idGenerator = new BookingIdGenerator(0);
+
+        // when
+        var first = idGenerator.nextId();
+        var second = idGenerator.nextId();
+
+        // then
+        assertTrue(second > first);
+        assertEquals(second, BookingIdGenerator.parse(BookingIdGenerator.toString(second)));
+    }
+
+}
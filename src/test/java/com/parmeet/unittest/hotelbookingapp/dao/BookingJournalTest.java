@@ -0,0 +1,100 @@
+package com.parmeet.unittest.hotelbookingapp.dao;
+
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final BookingRequest bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+            LocalDate.of(2022, 10, 1), 2, true);
+
+    @Test
+    void should_RecoverBookings_When_Reopened() {
+        // given
+        bookingRequest.setRoomId("1.3");
+        String kept;
+        try (var journal = new BookingJournal(directory)) {
+            var bookingDAO = new BookingDAO(journal);
+            kept = bookingDAO.save(bookingRequest);
+            bookingDAO.delete(bookingDAO.save(bookingRequest));
+        }
+
+        // when
+        try (var journal = new BookingJournal(directory)) {
+            var bookingDAO = new BookingDAO(journal);
+
+            // then
+            assertEquals(bookingRequest, bookingDAO.get(kept));
+            assertTrue(journal.isHealthy());
+        }
+    }
+
+    @Test
+    void should_RecoverEveryRoom_When_GroupBookingReopened() {
+        // given
+        bookingRequest.setRoomIds(List.of("1.3", "2.2", "2.1"));
+        String kept;
+        try (var journal = new BookingJournal(directory)) {
+            kept = new BookingDAO(journal).save(bookingRequest);
+        }
+
+        // when
+        try (var journal = new BookingJournal(directory)) {
+            var recovered = new BookingDAO(journal).get(kept);
+
+            // then
+            assertEquals(List.of("1.3", "2.2", "2.1"), recovered.getRoomIds());
+            assertEquals("1.3", recovered.getRoomId());
+        }
+    }
+
+    @Test
+    void should_NotReuseRecoveredIds_When_Reopened() {
+        // given
+        String kept;
+        try (var journal = new BookingJournal(directory)) {
+            kept = new BookingDAO(new BookingIdGenerator(0), journal).save(bookingRequest);
+        }
+
+        // when
+        try (var journal = new BookingJournal(directory)) {
+            var bookingDAO = new BookingDAO(new BookingIdGenerator(0), journal);
+            var bookingId = bookingDAO.save(bookingRequest);
+
+            // then
+            assertNotEquals(kept, bookingId);
+            assertEquals(2, bookingDAO.size());
+        }
+    }
+
+    @Test
+    void should_RecoverBookings_When_JournalCompacted() {
+        // given
+        String kept;
+        try (var journal = new BookingJournal(directory, 1, true, 0)) {
+            var bookingDAO = new BookingDAO(journal);
+            kept = bookingDAO.save(bookingRequest);
+            journal.compact();
+            bookingDAO.delete(bookingDAO.save(bookingRequest));
+        }
+
+        // when
+        try (var journal = new BookingJournal(directory)) {
+            var bookingDAO = new BookingDAO(journal);
+
+            // then
+            assertEquals(bookingRequest, bookingDAO.get(kept));
+        }
+    }
+
+}
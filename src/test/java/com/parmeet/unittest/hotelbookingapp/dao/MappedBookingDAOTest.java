@@ -0,0 +1,128 @@
+package com.parmeet.unittest.hotelbookingapp.dao;
+
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedBookingDAOTest {
+
+    private final MappedBookingDAO bookingDAO = new MappedBookingDAO(2);
+
+    @Test
+    void should_RoundTripBooking_When_Saved() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 10, 1), 2, true);
+        bookingRequest.setRoomId("1.3");
+
+        // when
+        var bookingId = bookingDAO.save(bookingRequest);
+
+        // then
+        assertEquals(bookingRequest, bookingDAO.get(bookingId));
+    }
+
+    @Test
+    void should_ReadRecordWithoutMaterializing() {
+        // given
+        var bookingRequest = new BookingRequest("7", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 10, 1), 3, false);
+        bookingDAO.save(bookingRequest);
+        var record = new BookingRecord();
+
+        // when
+        var live = bookingDAO.read(0, record);
+
+        // then
+        assertTrue(live);
+        assertAll(
+                () -> assertEquals(LocalDate.of(2022, 9, 27).toEpochDay(), record.getEpochDayFrom()),
+                () -> assertEquals(3, record.getGuestCount()),
+                () -> assertFalse(record.isPrepaid()),
+                () -> assertEquals("7", record.getUserId()),
+                () -> assertNull(record.getRoomId())
+        );
+    }
+
+    @Test
+    void should_HideBooking_When_Deleted() {
+        // given
+        var bookingId = bookingDAO.save(new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 10, 1), 2, false));
+
+        // when
+        bookingDAO.delete(bookingId);
+
+        // then
+        assertNull(bookingDAO.get(bookingId));
+    }
+
+    @Test
+    void should_ThrowException_When_StoreFull() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 10, 1), 2, false);
+        bookingDAO.save(bookingRequest);
+        bookingDAO.save(bookingRequest);
+
+        // when
+        Executable executable = () -> bookingDAO.save(bookingRequest);
+
+        // then
+        assertThrows(IllegalStateException.class, executable);
+    }
+
+    @Test
+    void should_SaveNothing_When_BatchDoesNotFit() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 10, 1), 2, false);
+
+        // when
+        Executable executable = () -> bookingDAO.saveAll(List.of(bookingRequest, bookingRequest, bookingRequest));
+
+        // then
+        assertThrows(IllegalStateException.class, executable);
+        assertEquals(0, bookingDAO.size());
+    }
+
+    @Test
+    void should_ReuseSlot_When_BookingDeleted() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 10, 1), 2, false);
+        var deletedId = bookingDAO.save(bookingRequest);
+        bookingDAO.save(bookingRequest);
+        bookingDAO.delete(deletedId);
+
+        // when
+        var reusedId = bookingDAO.save(bookingRequest);
+
+        // then
+        assertNotEquals(deletedId, reusedId);
+        assertNull(bookingDAO.get(deletedId));
+        assertEquals(bookingRequest, bookingDAO.get(reusedId));
+        bookingDAO.delete(deletedId);
+        assertEquals(2, bookingDAO.size());
+    }
+
+    @Test
+    void should_ThrowException_When_GuestCountDoesNotFitRecord() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 10, 1), 65_536, false);
+
+        // when
+        Executable executable = () -> bookingDAO.save(bookingRequest);
+
+        // then
+        assertThrows(IllegalArgumentException.class, executable);
+        assertEquals(0, bookingDAO.size());
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.parmeet.unittest.hotelbookingapp.external;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MailOutboxTest {
+
+    @Test
+    void should_DeliverQueuedConfirmations_When_Closed() {
+        // given
+        var transport = new InMemoryMailTransport();
+        var outbox = new MailOutbox(transport);
+
+        // when
+        outbox.sendBookingConfirmations(List.of("a", "b", "c"));
+        outbox.close();
+
+        // then
+        assertEquals(List.of("a", "b", "c"), transport.getBookingIds());
+    }
+
+    @Test
+    void should_RetryBatch_When_TransportFailsOnce() {
+        // given
+        var attempts = new AtomicInteger();
+        var transport = new InMemoryMailTransport() {
+            @Override
+            public void sendBookingConfirmations(List<String> bookingIds) {
+                if (attempts.getAndIncrement() == 0) {
+                    throw new IllegalStateException("SMTP down");
+                }
+                super.sendBookingConfirmations(bookingIds);
+            }
+        };
+        var outbox = new MailOutbox(transport, 10, 10, 3, 1, 10);
+
+        // when
+        outbox.sendBookingConfirmation("a");
+        outbox.close();
+
+        // then
+        assertEquals(List.of("a"), transport.getBookingIds());
+        assertTrue(outbox.getUndeliveredConfirmations().isEmpty());
+    }
+
+    @Test
+    void should_KeepUndeliveredConfirmations_When_RetriesExhausted() {
+        // given
+        MailTransport transport = bookingIds -> {
+            throw new IllegalStateException("SMTP down");
+        };
+        var outbox = new MailOutbox(transport, 10, 10, 2, 1, 10);
+
+        // when
+        outbox.sendBookingConfirmation("a");
+        outbox.close();
+
+        // then
+        assertEquals(List.of("a"), outbox.getUndeliveredConfirmations());
+    }
+
+    @Test
+    void should_QueueNothing_When_BatchDoesNotFit() throws InterruptedException {
+        // given
+        var delivering = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var transport = new InMemoryMailTransport() {
+            @Override
+            public void sendBookingConfirmations(List<String> bookingIds) {
+                delivering.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.sendBookingConfirmations(bookingIds);
+            }
+        };
+        var outbox = new MailOutbox(transport, 2, 10, 1, 1, 10);
+        outbox.sendBookingConfirmation("a");
+        delivering.await();
+        outbox.sendBookingConfirmations(List.of("b", "c"));
+
+        // when
+        assertThrows(IllegalStateException.class, () -> outbox.sendBookingConfirmations(List.of("d", "e")));
+
+        // then
+        assertEquals(2, outbox.getPendingCount());
+        release.countDown();
+        outbox.close();
+        assertEquals(List.of("a", "b", "c"), transport.getBookingIds());
+    }
+
+    @Test
+    void should_DeliverEveryAcceptedConfirmation_When_ClosedWhileSending() throws InterruptedException {
+        // given
+        var transport = new InMemoryMailTransport();
+        var outbox = new MailOutbox(transport);
+        var accepted = new AtomicInteger();
+        var senders = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            int sender = t;
+            senders.add(new Thread(() -> {
+                for (int i = 0; ; i++) {
+                    try {
+                        outbox.sendBookingConfirmation(sender + "-" + i);
+                        accepted.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        return;
+                    }
+                }
+            }));
+        }
+        senders.forEach(Thread::start);
+
+        // when
+        Thread.sleep(20);
+        outbox.close();
+        for (Thread sender : senders) {
+            sender.join();
+        }
+
+        // then
+        assertEquals(accepted.get(), transport.getBookingIds().size());
+    }
+
+}
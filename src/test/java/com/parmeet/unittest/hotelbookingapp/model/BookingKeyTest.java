@@ -0,0 +1,54 @@
+package com.parmeet.unittest.hotelbookingapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingKeyTest {
+
+    private final BookingRequest bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+            LocalDate.of(2022, 9, 29), 2, true);
+
+    @Test
+    void should_KeepKey_When_RoomAssigned() {
+        // given
+        var key = BookingKey.of(bookingRequest);
+
+        // when
+        bookingRequest.setRoomId("1.1");
+
+        // then
+        assertEquals(key, BookingKey.of(bookingRequest));
+        assertEquals(key.hashCode(), BookingKey.of(bookingRequest).hashCode());
+    }
+
+    @Test
+    void should_RoundTripRequest_When_ConvertedToBooking() {
+        // given
+        bookingRequest.setRoomId("1.1");
+
+        // when
+        var booking = Booking.of(bookingRequest);
+
+        // then
+        assertEquals(bookingRequest, booking.toRequest());
+        assertEquals("1.1", booking.toRequest().getRoomId());
+        assertEquals(LocalDate.of(2022, 9, 27), booking.getKey().getDateFrom());
+    }
+
+    @Test
+    void should_SupportMissingDates() {
+        // given
+        var undated = new BookingRequest("1", null, null, 2, false);
+
+        // when
+        var key = BookingKey.of(undated);
+
+        // then
+        assertNull(key.getDateFrom());
+        assertEquals(undated, key.toRequest());
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.parmeet.unittest.hotelbookingapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingRequestTest {
+
+    @Test
+    void should_StayEqual_When_RoomsAssigned() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 9, 29), 5, true);
+        var sameStay = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 9, 29), 5, true);
+        int hashCode = bookingRequest.hashCode();
+
+        // when
+        bookingRequest.setRoomIds(List.of("1.3", "2.1"));
+
+        // then
+        assertEquals(sameStay, bookingRequest);
+        assertEquals(hashCode, bookingRequest.hashCode());
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import com.parmeet.unittest.hotelbookingapp.dao.BookingDAO;
+import com.parmeet.unittest.hotelbookingapp.exception.BusinessException;
+import com.parmeet.unittest.hotelbookingapp.external.MailSender;
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncBookingServiceTest {
+
+    private final BookingDAO bookingDAO = new BookingDAO();
+
+    private final BookingService bookingService = new BookingService(new PaymentService(), new RoomService(),
+            bookingDAO, new MailSender() {
+                @Override
+                public void sendBookingConfirmation(String bookingId) {
+                }
+            });
+
+    private final AsyncBookingService asyncBookingService =
+            new AsyncBookingService(bookingService, Executors.newFixedThreadPool(4));
+
+    @AfterEach
+    void tearDown() {
+        asyncBookingService.close();
+    }
+
+    @Test
+    void should_BookEveryRoomOnce_When_CalledConcurrently() {
+        // given
+        var futures = new ArrayList<CompletableFuture<String>>();
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            futures.add(asyncBookingService.makeBooking(request(String.valueOf(i))));
+        }
+
+        // then
+        var roomIds = new HashSet<String>();
+        for (CompletableFuture<String> future : futures) {
+            roomIds.add(bookingDAO.get(future.join()).getRoomId());
+        }
+        assertEquals(5, roomIds.size());
+    }
+
+    @Test
+    void should_CompleteExceptionally_When_NoRoomAvailable() {
+        // given
+        for (int i = 0; i < 5; i++) {
+            asyncBookingService.makeBooking(request(String.valueOf(i))).join();
+        }
+
+        // when
+        var future = asyncBookingService.makeBooking(request("6"));
+
+        // then
+        var exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(BusinessException.class, exception.getCause());
+    }
+
+    @Test
+    void should_RemoveBooking_When_CancelCompletes() {
+        // given
+        var bookingId = asyncBookingService.makeBooking(request("1")).join();
+
+        // when
+        asyncBookingService.cancelBooking(bookingId).join();
+
+        // then
+        assertNull(bookingDAO.get(bookingId));
+    }
+
+    @Test
+    void should_CreateVirtualThreadExecutor_Only_When_Supported() {
+        if (AsyncBookingService.isVirtualThreadSupported()) {
+            AsyncBookingService.newVirtualThreadExecutor().shutdown();
+        } else {
+            assertThrows(UnsupportedOperationException.class, AsyncBookingService::newVirtualThreadExecutor);
+        }
+    }
+
+    private static BookingRequest request(String userId) {
+        return new BookingRequest(userId, LocalDate.of(2022, 9, 27), LocalDate.of(2022, 10, 1), 2, false);
+    }
+
+}
@@ -3,9 +3,10 @@ package com.parmeet.unittest.hotelbookingapp.service;
 
 import com.parmeet.unittest.hotelbookingapp.dao.BookingDAO;
 import com.parmeet.unittest.hotelbookingapp.exception.BusinessException;
+import com.parmeet.unittest.hotelbookingapp.exception.PaymentRejectedException;
 import com.parmeet.unittest.hotelbookingapp.external.MailSender;
 import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
-import com.parmeet.unittest.hotelbookingapp.model.Room;
+import com.parmeet.unittest.hotelbookingapp.model.BookingResult;
 import com.parmeet.unittest.hotelbookingapp.util.CurrencyConverter;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,7 +16,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -74,8 +76,7 @@ class BookingServiceTest {
     @Test
     void should_CountAvailablePlaces_When_OneRoomAvailable() {
         // given
-        when(this.roomServiceMock.getAvailableRooms())
-                .thenReturn(Collections.singletonList(new Room("Room 1", 2)));
+        when(this.roomServiceMock.getAvailablePlaceCount()).thenReturn(2);
         var expected = 2;
 
         // when
@@ -88,10 +89,7 @@ class BookingServiceTest {
     @Test
     void should_CountAvailablePlaces_When_MultipleRoomsAvailable() {
         // given
-        var rooms = Arrays.asList(
-                new Room("Room 1", 2),
-                new Room("Room 2", 5));
-        when(this.roomServiceMock.getAvailableRooms()).thenReturn(rooms);
+        when(this.roomServiceMock.getAvailablePlaceCount()).thenReturn(2 + 5);
         var expected = 7;
 
         // when
@@ -104,9 +102,9 @@ class BookingServiceTest {
     @Test
     void should_CountAvailablePlaces_When_CalledMultipleTimes() {
         // given
-        when(this.roomServiceMock.getAvailableRooms())
-                .thenReturn(Collections.singletonList(new Room("Room 1", 5)))
-                .thenReturn(Collections.emptyList());
+        when(this.roomServiceMock.getAvailablePlaceCount())
+                .thenReturn(5)
+                .thenReturn(0);
         var expectedFirstCall = 5;
         var expectedSecondCall = 0;
 
@@ -126,7 +124,7 @@ class BookingServiceTest {
         // given
         var bookingRequest = new BookingRequest("1", LocalDate.of(2022,9,27),
                 LocalDate.of(2022,10,1), 2, false);
-        when(this.roomServiceMock.findAvailableRoomId(bookingRequest))
+        when(this.roomServiceMock.claimRoom(bookingRequest))
                 .thenThrow(BusinessException.class);
 
         // when
@@ -152,6 +150,24 @@ class BookingServiceTest {
         assertThrows(BusinessException.class, executable);
     }
 
+    @Test
+    void should_ReleaseClaimedRoom_When_PaymentFails() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 2, true);
+        when(this.roomServiceMock.claimRoom(bookingRequest)).thenReturn("1.1");
+        when(this.paymentServiceMock.pay(any(), anyDouble()))
+                .thenThrow(BusinessException.class);
+
+        // when
+        Executable executable = () -> bookingService.makeBooking(bookingRequest);
+
+        // then
+        assertThrows(BusinessException.class, executable);
+        verify(this.roomServiceMock).unbookRoom("1.1", bookingRequest.getDateFrom(), bookingRequest.getDateTo());
+        verify(this.roomServiceMock, never()).findAvailableRoomId(any());
+    }
+
     @Test
     void should_InvokePayment_When_Prepaid() {
         // given
@@ -238,6 +254,25 @@ class BookingServiceTest {
         assertEquals(400.0, capturedValue);
     }
 
+    @Test
+    void should_PayRoomTypePrice_When_RoomHasType() {
+        // given
+        var pricingService = new PricingService();
+        pricingService.setRateTable("suite", RateTable.flat(120.0));
+        bookingService.setPricingService(pricingService);
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 2, true);
+        when(this.roomServiceMock.claimRoom(bookingRequest)).thenReturn("1.1");
+        when(this.roomServiceMock.getRoomType("1.1")).thenReturn("suite");
+
+        // when
+        bookingService.makeBooking(bookingRequest);
+
+        // then
+        verify(paymentServiceMock).pay(eq(bookingRequest), doubleCaptor.capture());
+        assertEquals(4 * 2 * 120.0, doubleCaptor.getValue());
+    }
+
     @Test
     void should_PayCorrectPrices_When_MultipleCalls() {
         // given
@@ -260,8 +295,7 @@ class BookingServiceTest {
     @Test
     void should_CountAvailablePlaces_When_OneRoomAvailable_BDDStyle() {
         // given
-        given(this.roomServiceMock.getAvailableRooms())
-                .willReturn(Collections.singletonList(new Room("Room 1", 2)));
+        given(this.roomServiceMock.getAvailablePlaceCount()).willReturn(2);
         var expected = 2;
 
         // when
@@ -320,4 +354,248 @@ class BookingServiceTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    void should_ReportResultPerRequest_When_BatchPartlyFails() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 2, false);
+        var bookingRequest2 = new BookingRequest("2", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 3, false);
+        when(this.roomServiceMock.tryClaimRoom(bookingRequest)).thenReturn("1.1");
+
+        // when
+        var results = bookingService.makeBookings(List.of(bookingRequest, bookingRequest2));
+
+        // then
+        assertAll(
+                () -> assertTrue(results.get(0).isSuccess()),
+                () -> assertEquals("1.1", bookingRequest.getRoomId()),
+                () -> assertFalse(results.get(1).isSuccess()),
+                () -> assertInstanceOf(BookingResult.NoRoom.class, results.get(1))
+        );
+        verify(this.mailSenderMock).sendBookingConfirmations(List.of(results.get(0).getBookingId()));
+    }
+
+    @Test
+    void should_ReleaseRoomsAndRefund_When_BatchSaveFails() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 2, true);
+        var bookingRequest2 = new BookingRequest("2", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 2, false);
+        when(this.roomServiceMock.tryClaimRoom(bookingRequest)).thenReturn("1.1");
+        when(this.roomServiceMock.tryClaimRoom(bookingRequest2)).thenReturn("1.2");
+        when(this.paymentServiceMock.charge(bookingRequest, 400.0)).thenReturn(PaymentResult.accepted("payment-1"));
+        doThrow(new IllegalStateException()).when(this.bookingDAOMock).saveAll(any());
+
+        // when
+        var results = bookingService.makeBookings(List.of(bookingRequest, bookingRequest2));
+
+        // then
+        assertAll(
+                () -> assertInstanceOf(BookingResult.Failed.class, results.get(0)),
+                () -> assertInstanceOf(BookingResult.Failed.class, results.get(1))
+        );
+        verify(this.roomServiceMock).unbookRoom("1.1", bookingRequest.getDateFrom(), bookingRequest.getDateTo());
+        verify(this.roomServiceMock).unbookRoom("1.2", bookingRequest2.getDateFrom(), bookingRequest2.getDateTo());
+        verify(this.paymentServiceMock, times(1)).refund(anyString());
+        verify(this.paymentServiceMock).refund("payment-1");
+        verifyNoInteractions(this.mailSenderMock);
+    }
+
+    @Test
+    void should_ReturnExistingBooking_When_BookingRetried() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 2, true);
+        when(this.roomServiceMock.claimRoom(bookingRequest)).thenReturn("1.1");
+        when(this.paymentServiceMock.pay(bookingRequest, 400.0)).thenReturn("payment-1");
+        var bookingId = bookingService.makeBooking(bookingRequest);
+
+        // when
+        var retriedBookingId = bookingService.makeBooking(bookingRequest);
+
+        // then
+        assertEquals(bookingId, retriedBookingId);
+        verify(this.roomServiceMock, times(1)).claimRoom(any());
+        verify(this.paymentServiceMock, times(1)).pay(any(), anyDouble());
+        verify(this.bookingDAOMock, times(1)).save(any());
+    }
+
+    @Test
+    void should_RefundPayment_When_BookingCancelled() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 2, true);
+        when(this.roomServiceMock.claimRoom(bookingRequest)).thenReturn("1.1");
+        when(this.paymentServiceMock.pay(bookingRequest, 400.0)).thenReturn("payment-1");
+        var bookingId = bookingService.makeBooking(bookingRequest);
+
+        // when
+        bookingService.cancelBooking(bookingId);
+
+        // then
+        verify(this.paymentServiceMock).refund("payment-1");
+        assertNotEquals(bookingId, bookingService.makeBooking(bookingRequest));
+    }
+
+    @Test
+    void should_ReleaseEveryRoom_When_GroupBookingCancelled() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 12, false);
+        var roomIds = List.of("1.3", "2.2", "2.1");
+        when(this.roomServiceMock.claimRooms(bookingRequest)).thenReturn(roomIds);
+        var bookingId = bookingService.makeGroupBooking(bookingRequest);
+
+        // when
+        bookingService.cancelBooking(bookingId);
+
+        // then
+        for (String roomId : roomIds) {
+            verify(this.roomServiceMock).unbookRoom(roomId, bookingRequest.getDateFrom(), bookingRequest.getDateTo());
+        }
+        verify(this.mailSenderMock).sendBookingConfirmation(bookingId);
+    }
+
+    @Test
+    void should_StoreEveryRoom_When_GroupBooked() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 12, true);
+        when(this.roomServiceMock.claimRooms(bookingRequest)).thenReturn(List.of("1.3", "2.2", "2.1"));
+        when(this.roomServiceMock.getRoomCapacity("1.3")).thenReturn(5);
+        when(this.roomServiceMock.getRoomCapacity("2.2")).thenReturn(4);
+        when(this.roomServiceMock.getRoomCapacity("2.1")).thenReturn(3);
+
+        // when
+        var bookingId = bookingService.makeGroupBooking(bookingRequest);
+
+        // then
+        assertEquals(List.of("1.3", "2.2", "2.1"), bookingDAOMock.get(bookingId).getRoomIds());
+        assertEquals(List.of("1.3", "2.2", "2.1"), bookingService.getBooking(bookingId).getRoomIds());
+        verify(paymentServiceMock).pay(eq(bookingRequest), doubleCaptor.capture());
+        assertEquals(4 * 12 * 50.0, doubleCaptor.getValue());
+    }
+
+    @Test
+    void should_ReturnNoRoom_When_NoRoomAvailable_WithoutThrowing() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 2, false);
+        when(this.roomServiceMock.tryClaimRoom(bookingRequest)).thenReturn(null);
+
+        // when
+        var result = bookingService.tryMakeBooking(bookingRequest);
+
+        // then
+        assertInstanceOf(BookingResult.NoRoom.class, result);
+        verifyNoInteractions(this.paymentServiceMock, this.mailSenderMock);
+    }
+
+    @Test
+    void should_ReturnPaymentRejected_And_ReleaseRoom_When_PaymentRuleRejects() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 2, true);
+        when(this.roomServiceMock.tryClaimRoom(bookingRequest)).thenReturn("1.1");
+        when(this.paymentServiceMock.charge(bookingRequest, 400.0))
+                .thenReturn(PaymentResult.rejected(1, "small-payments-only"));
+
+        // when
+        var result = bookingService.tryMakeBooking(bookingRequest);
+
+        // then
+        assertInstanceOf(BookingResult.PaymentRejected.class, result);
+        assertEquals("small-payments-only", ((BookingResult.PaymentRejected) result).getRule());
+        verify(this.roomServiceMock).unbookRoom("1.1", bookingRequest.getDateFrom(), bookingRequest.getDateTo());
+    }
+
+    @Test
+    void should_BookHeldRoom_When_HoldConfirmed() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 5, false);
+        var hold = new RoomHold("1.3", bookingRequest);
+
+        // when
+        String bookingId = bookingService.confirmHold(hold);
+
+        // then
+        verify(this.roomServiceMock).confirm(hold);
+        verify(this.roomServiceMock, never()).claimRoom(any());
+        assertEquals("1.3", this.bookingDAOMock.get(bookingId).getRoomId());
+        verify(this.mailSenderMock).sendBookingConfirmation(bookingId);
+    }
+
+    @Test
+    void should_NotBook_When_HoldLapsed() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 5, true);
+        var hold = new RoomHold("1.3", bookingRequest);
+        doThrow(BusinessException.ROOM_NOT_AVAILABLE).when(this.roomServiceMock).confirm(hold);
+
+        // when
+        Executable executable = () -> bookingService.confirmHold(hold);
+
+        // then
+        assertThrows(BusinessException.class, executable);
+        verify(this.bookingDAOMock, never()).save(any());
+        verifyNoInteractions(this.paymentServiceMock, this.mailSenderMock);
+    }
+
+    @Test
+    void should_ReleaseStoredRooms_When_BookingRecoveredByStore() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 2, false);
+        bookingRequest.setRoomId("1.1");
+        var bookingId = this.bookingDAOMock.save(bookingRequest);
+
+        // when
+        bookingService.cancelBooking(bookingId);
+
+        // then
+        verify(this.roomServiceMock).unbookRoom("1.1", bookingRequest.getDateFrom(), bookingRequest.getDateTo());
+        assertNull(this.bookingDAOMock.get(bookingId));
+        verifyNoInteractions(this.paymentServiceMock);
+    }
+
+    @Test
+    void should_PayThroughSettlement_When_SettledPaymentsEnabled() {
+        // given
+        bookingService.setSettledPayments(true);
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 2, true);
+        when(this.roomServiceMock.claimRoom(bookingRequest)).thenReturn("1.1");
+        when(this.paymentServiceMock.payAsync(bookingRequest, 400.0))
+                .thenReturn(CompletableFuture.completedFuture("settled-1"));
+
+        // when
+        var bookingId = bookingService.makeBooking(bookingRequest);
+
+        // then
+        assertEquals("settled-1", bookingService.getBooking(bookingId).getPaymentId());
+        verify(this.paymentServiceMock, never()).pay(any(), anyDouble());
+    }
+
+    @Test
+    void should_ReleaseRoom_When_SettlementDeclinesCharge() {
+        // given
+        bookingService.setSettledPayments(true);
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022,9,27),
+                LocalDate.of(2022,10,1), 2, true);
+        when(this.roomServiceMock.tryClaimRoom(bookingRequest)).thenReturn("1.1");
+        when(this.paymentServiceMock.payAsync(bookingRequest, 400.0)).thenReturn(CompletableFuture.failedFuture(
+                new PaymentRejectedException(PaymentRejectedException.DECLINED, "Charge declined")));
+
+        // when
+        var result = bookingService.tryMakeBooking(bookingRequest);
+
+        // then
+        assertInstanceOf(BookingResult.PaymentRejected.class, result);
+        verify(this.roomServiceMock).unbookRoom("1.1", bookingRequest.getDateFrom(), bookingRequest.getDateTo());
+    }
+
+}
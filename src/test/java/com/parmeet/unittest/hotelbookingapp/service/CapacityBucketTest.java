@@ -0,0 +1,42 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapacityBucketTest {
+
+    private final CapacityBucket bucket = new CapacityBucket(2, new int[]{0, 1});
+
+    @Test
+    void should_DropNight_When_LastStayReleased() {
+        // given
+        bucket.markStay(0, 10, 14, true);
+        bucket.markStay(1, 12, 16, true);
+
+        // when
+        bucket.markStay(0, 10, 14, false);
+
+        // then
+        assertEquals(4, bucket.getBookedNightCount());
+        assertEquals(-1, bucket.nextFree(1, 12, 14));
+        assertEquals(0, bucket.nextFree(0, 12, 14));
+        bucket.markStay(1, 12, 16, false);
+        assertEquals(0, bucket.getBookedNightCount());
+    }
+
+    @Test
+    void should_KeepNight_When_SlotMarkedTwice() {
+        // given
+        bucket.markStay(0, 10, 11, true);
+        bucket.markStay(0, 10, 11, true);
+
+        // when
+        bucket.markStay(0, 10, 11, false);
+
+        // then
+        assertEquals(0, bucket.getBookedNightCount());
+        assertEquals(2, bucket.getFreeCount(10));
+    }
+
+}
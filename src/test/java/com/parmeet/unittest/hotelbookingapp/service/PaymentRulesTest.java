@@ -0,0 +1,47 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentRulesTest {
+
+    @Test
+    void should_RejectLargePaymentForSmallParty_When_DefaultRules() {
+        // given
+        var rules = PaymentRules.defaults();
+
+        // when
+        var resultCode = rules.evaluate(400.0, 2, 4, true);
+
+        // then
+        assertEquals("small-payments-only", rules.getRuleName(resultCode));
+        assertEquals(PaymentRules.ACCEPTED, rules.evaluate(400.0, 3, 4, true));
+        assertEquals(PaymentRules.ACCEPTED, rules.evaluate(200.0, 2, 2, true));
+    }
+
+    @Test
+    void should_ReportFirstMatchingRule() {
+        // given
+        var rules = PaymentRules.parse(String.join("\n",
+                "# risk limits",
+                "long-stays = nights >= 14",
+                "",
+                "big-parties-prepaid = guestCount > 6 and prepaid == 0"));
+
+        // when
+        var resultCode = rules.evaluate(100.0, 8, 2, false);
+
+        // then
+        assertEquals(2, rules.getRuleCount());
+        assertEquals(2, resultCode);
+        assertEquals(1, rules.evaluate(100.0, 8, 14, false));
+        assertEquals(PaymentRules.ACCEPTED, rules.evaluate(100.0, 8, 2, true));
+    }
+
+    @Test
+    void should_ThrowException_When_RuleUsesUnknownField() {
+        assertThrows(IllegalArgumentException.class, () -> PaymentRules.parse("bad = discount > 10"));
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import com.parmeet.unittest.hotelbookingapp.exception.PaymentRejectedException;
+import com.parmeet.unittest.hotelbookingapp.external.FakePaymentProcessor;
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import com.parmeet.unittest.hotelbookingapp.util.Currency;
+import com.parmeet.unittest.hotelbookingapp.util.Money;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentServiceTest {
+
+    private final PaymentService paymentService = new PaymentService();
+
+    private final BookingRequest bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+            LocalDate.of(2022, 9, 29), 2, true);
+
+    @Test
+    void should_ChargeOnce_When_PaymentRetried() {
+        // when
+        var paymentId = paymentService.pay(bookingRequest, 200.0);
+        bookingRequest.setRoomId("1.1");
+        var retriedPaymentId = paymentService.pay(bookingRequest, 200.0);
+
+        // then
+        assertEquals(paymentId, retriedPaymentId);
+        assertEquals(20000, paymentService.getPaidAmountMinor(bookingRequest));
+    }
+
+    @Test
+    void should_RecordUsdCents_When_PaidInEuro() {
+        // when
+        paymentService.pay(bookingRequest, Money.of(85.0, Currency.EUR));
+
+        // then
+        assertEquals(Money.of(100.0, Currency.USD), paymentService.getPaidAmount(bookingRequest));
+    }
+
+    @Test
+    void should_ChargeAgain_When_Refunded() {
+        // given
+        var paymentId = paymentService.pay(bookingRequest, 200.0);
+
+        // when
+        var refunded = paymentService.refund(paymentId);
+
+        // then
+        assertTrue(refunded);
+        assertFalse(paymentService.isPaid(bookingRequest));
+        assertNotEquals(paymentId, paymentService.pay(bookingRequest, 200.0));
+    }
+
+    @Test
+    void should_KeepNewPayment_When_OldPaymentRefundedAgain() {
+        // given
+        var paymentId = paymentService.pay(bookingRequest, 200.0);
+        paymentService.refund(paymentId);
+        paymentService.pay(bookingRequest, 200.0);
+
+        // when
+        var refunded = paymentService.refund(paymentId);
+
+        // then
+        assertFalse(refunded);
+        assertTrue(paymentService.isPaid(bookingRequest));
+    }
+
+    @Test
+    void should_ThrowException_When_PriceTooHigh() {
+        assertThrows(UnsupportedOperationException.class, () -> paymentService.pay(bookingRequest, 400.0));
+    }
+
+    @Test
+    void should_NameRejectingRule_When_PriceTooHigh() {
+        // when
+        var exception = assertThrows(PaymentRejectedException.class, () -> paymentService.pay(bookingRequest, 400.0));
+
+        // then
+        assertEquals("Payment rejected by rule " + exception.getRuleName(), exception.getMessage());
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    @Test
+    void should_ReportRejectingRule_When_ChargeRejected() {
+        // when
+        var result = paymentService.charge(bookingRequest, 400.0);
+
+        // then
+        assertFalse(result.isAccepted());
+        assertNull(result.getPaymentId());
+        assertEquals(PaymentRules.defaults().getRuleName(result.getRuleCode()), result.getRuleName());
+        assertFalse(paymentService.isPaid(bookingRequest));
+    }
+
+    @Test
+    void should_SettleOnce_When_AsyncPaymentRetried() {
+        // given
+        var processor = new FakePaymentProcessor(0);
+        var settlement = new PaymentSettlement(processor, 10, 5, 1);
+        var paymentService = new PaymentService(settlement);
+
+        // when
+        var reference = paymentService.payAsync(bookingRequest, 200.0);
+        var retriedReference = paymentService.payAsync(bookingRequest, 200.0);
+
+        // then
+        assertEquals(reference.join(), retriedReference.join());
+        assertEquals(1, processor.getRoundTrips());
+        settlement.close();
+    }
+
+    @Test
+    void should_NotSettleAgain_When_AlreadyPaid() {
+        // given
+        var processor = new FakePaymentProcessor(0);
+        var settlement = new PaymentSettlement(processor, 10, 5, 1);
+        var paymentService = new PaymentService(settlement);
+        var paymentId = paymentService.pay(bookingRequest, 200.0);
+
+        // when
+        var reference = paymentService.payAsync(bookingRequest, 200.0);
+
+        // then
+        assertEquals(paymentId, reference.join());
+        assertEquals(0, processor.getRoundTrips());
+        settlement.close();
+    }
+
+    @Test
+    void should_ForgetSettlement_When_PaymentRecorded() {
+        // given
+        var processor = new FakePaymentProcessor(0);
+        var settlement = new PaymentSettlement(processor, 1, 5, 1);
+        var paymentService = new PaymentService(settlement);
+
+        // when
+        var reference = paymentService.payAsync(bookingRequest, 200.0).join();
+
+        // then
+        assertTrue(paymentService.isPaid(bookingRequest));
+        assertEquals(0, paymentService.getPendingSettlementCount());
+        assertEquals(reference, paymentService.payAsync(bookingRequest, 200.0).join());
+        assertEquals(1, processor.getRoundTrips());
+        settlement.close();
+    }
+
+}
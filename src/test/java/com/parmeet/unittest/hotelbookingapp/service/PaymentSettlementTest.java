@@ -0,0 +1,67 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import com.parmeet.unittest.hotelbookingapp.exception.PaymentRejectedException;
+import com.parmeet.unittest.hotelbookingapp.external.FakePaymentProcessor;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentSettlementTest {
+
+    @Test
+    void should_SettleFullBatchInOneRoundTrip() {
+        // given
+        var processor = new FakePaymentProcessor(0);
+        var settlement = new PaymentSettlement(processor, 3, 60_000, 1);
+
+        // when
+        var first = settlement.submit("a", 100);
+        var second = settlement.submit("b", 200);
+        var third = settlement.submit("c", 300);
+
+        // then
+        assertAll(
+                () -> assertNotNull(first.join()),
+                () -> assertNotNull(second.join()),
+                () -> assertNotNull(third.join())
+        );
+        assertEquals(1, processor.getRoundTrips());
+        settlement.close();
+    }
+
+    @Test
+    void should_SettlePartialBatch_When_WindowElapses() {
+        // given
+        var processor = new FakePaymentProcessor(0);
+        var settlement = new PaymentSettlement(processor, 100, 5, 1);
+
+        // when
+        var future = settlement.submit("a", 100);
+
+        // then
+        assertNotNull(future.join());
+        settlement.close();
+    }
+
+    @Test
+    void should_FailOnlyDeclinedCharge() {
+        // given
+        var processor = new FakePaymentProcessor(0, 1000);
+        var settlement = new PaymentSettlement(processor, 2, 60_000, 1);
+
+        // when
+        var accepted = settlement.submit("a", 100);
+        var declined = settlement.submit("b", 5000);
+
+        // then
+        assertNotNull(accepted.join());
+        var exception = assertThrows(CompletionException.class, declined::join);
+        var rejection = assertInstanceOf(PaymentRejectedException.class, exception.getCause());
+        assertEquals(PaymentRejectedException.DECLINED, rejection.getRuleCode());
+        assertEquals(0, rejection.getStackTrace().length);
+        settlement.close();
+    }
+
+}
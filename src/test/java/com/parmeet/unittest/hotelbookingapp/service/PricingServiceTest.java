@@ -0,0 +1,93 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PricingServiceTest {
+
+    // 2022-09-26 is a Monday
+    private final RateTable rateTable = RateTable.compile(
+            new RatePlan(50.0)
+                    .season(LocalDate.of(2022, 10, 3), LocalDate.of(2022, 10, 10), 80.0)
+                    .weekendUplift(0.5),
+            LocalDate.of(2022, 9, 26), LocalDate.of(2022, 10, 31));
+
+    @Test
+    void should_ChargeFlatRate_When_DefaultPricing() {
+        // given
+        var pricingService = new PricingService();
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 10, 1), 2, false);
+
+        // when
+        var price = pricingService.calculatePrice(bookingRequest);
+
+        // then
+        assertEquals(4 * 2 * 50.0, price);
+    }
+
+    @Test
+    void should_ApplyWeekendUplift() {
+        // when Thursday, Friday and Saturday nights
+        var total = rateTable.total(LocalDate.of(2022, 9, 29).toEpochDay(), LocalDate.of(2022, 10, 2).toEpochDay());
+
+        // then
+        assertEquals(50.0 + 75.0 + 75.0, total, 1e-9);
+    }
+
+    @Test
+    void should_ApplySeasonRate_When_StaySpansSeasonStart() {
+        // when Sunday 2 Oct and Monday 3 Oct nights
+        var total = rateTable.total(LocalDate.of(2022, 10, 2).toEpochDay(), LocalDate.of(2022, 10, 4).toEpochDay());
+
+        // then
+        assertEquals(50.0 + 80.0, total, 1e-9);
+    }
+
+    @Test
+    void should_ChargeBaseRate_When_StayLeavesWindow() {
+        // when Sunday 30 Oct to Wednesday 2 Nov
+        var total = rateTable.total(LocalDate.of(2022, 10, 30).toEpochDay(), LocalDate.of(2022, 11, 2).toEpochDay());
+
+        // then
+        assertEquals(3 * 50.0, total, 1e-9);
+    }
+
+    @Test
+    void should_ApplyWeekendUplift_When_StayLeavesWindow() {
+        // when Thursday 3 Nov, Friday and Saturday nights
+        var total = rateTable.total(LocalDate.of(2022, 11, 3).toEpochDay(), LocalDate.of(2022, 11, 6).toEpochDay());
+
+        // then
+        assertEquals(50.0 + 75.0 + 75.0, total, 1e-9);
+    }
+
+    @Test
+    void should_ApplyWeekendUplift_When_StayStartsBeforeWindow() {
+        // when Friday 23 Sep to Tuesday 27 Sep
+        var total = rateTable.total(LocalDate.of(2022, 9, 23).toEpochDay(), LocalDate.of(2022, 9, 27).toEpochDay());
+
+        // then
+        assertEquals(75.0 + 75.0 + 50.0 + 50.0, total, 1e-9);
+    }
+
+    @Test
+    void should_UseRoomTypeRateTable() {
+        // given
+        var pricingService = new PricingService();
+        pricingService.setRateTable("suite", rateTable);
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 10, 3),
+                LocalDate.of(2022, 10, 4), 2, false);
+
+        // when
+        var price = pricingService.calculatePrice("suite", bookingRequest);
+
+        // then
+        assertEquals(2 * 80.0, price, 1e-9);
+    }
+
+}
@@ -0,0 +1,491 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import com.parmeet.unittest.hotelbookingapp.exception.BusinessException;
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import com.parmeet.unittest.hotelbookingapp.model.Room;
+import com.parmeet.unittest.hotelbookingapp.util.TimingWheel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomServiceTest {
+
+    private final RoomService roomService = new RoomService();
+
+    @Test
+    void should_SellSameRoom_When_StaysDoNotOverlap() {
+        // given
+        roomService.bookRoom("1.3", LocalDate.of(2022, 9, 27), LocalDate.of(2022, 10, 1));
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 10, 1),
+                LocalDate.of(2022, 10, 3), 5, false);
+
+        // when
+        var roomId = roomService.findAvailableRoomId(bookingRequest);
+
+        // then
+        assertEquals("1.3", roomId);
+    }
+
+    @Test
+    void should_ThrowException_When_StaysOverlap() {
+        // given
+        roomService.bookRoom("1.3", LocalDate.of(2022, 9, 27), LocalDate.of(2022, 10, 1));
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 30),
+                LocalDate.of(2022, 10, 3), 5, false);
+
+        // when
+        Executable executable = () -> roomService.findAvailableRoomId(bookingRequest);
+
+        // then
+        assertThrows(BusinessException.class, executable);
+    }
+
+    @Test
+    void should_FreeDates_When_StayUnbooked() {
+        // given
+        var dateFrom = LocalDate.of(2022, 9, 27);
+        var dateTo = LocalDate.of(2022, 10, 1);
+        roomService.bookRoom("1.3", dateFrom, dateTo);
+
+        // when
+        roomService.unbookRoom("1.3", dateFrom, dateTo);
+
+        // then
+        assertTrue(roomService.isRoomAvailable("1.3", dateFrom, dateTo));
+    }
+
+    @Test
+    void should_FindRoomAgain_When_StayUnbooked() {
+        // given
+        var dateFrom = LocalDate.of(2022, 9, 27);
+        var dateTo = LocalDate.of(2022, 10, 1);
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 30),
+                LocalDate.of(2022, 10, 3), 5, false);
+        roomService.bookRoom("1.3", dateFrom, dateTo);
+        assertNull(roomService.tryFindAvailableRoomId(bookingRequest));
+
+        // when
+        roomService.unbookRoom("1.3", dateFrom, dateTo);
+
+        // then
+        assertEquals("1.3", roomService.findAvailableRoomId(bookingRequest));
+    }
+
+    @Test
+    void should_FindRoomWithMatchingCapacity() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 10, 1), 3, false);
+
+        // when
+        var roomId = roomService.findAvailableRoomId(bookingRequest);
+
+        // then
+        assertEquals("2.1", roomId);
+    }
+
+    @Test
+    void should_SkipBookedRoom_When_SearchingByExactCapacity() {
+        // given
+        roomService.setAllocationPolicy(AllocationPolicy.EXACT_MATCH);
+        roomService.bookRoom("2.1");
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 10, 1), 3, false);
+
+        // when
+        Executable executable = () -> roomService.findAvailableRoomId(bookingRequest);
+
+        // then
+        assertThrows(BusinessException.class, executable);
+        assertEquals(4, roomService.getAvailableRooms().size());
+    }
+
+    @Test
+    void should_FindSmallestLargerRoom_When_ExactCapacityBooked() {
+        // given
+        roomService.bookRoom("2.1");
+        roomService.bookRoom("2.2");
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 10, 1), 3, false);
+
+        // when
+        var roomId = roomService.claimRoom(bookingRequest);
+
+        // then
+        assertEquals("1.3", roomId);
+        assertFalse(roomService.isRoomAvailable("1.3", LocalDate.of(2022, 9, 28), LocalDate.of(2022, 9, 29)));
+    }
+
+    @Test
+    void should_PackStayNextToExistingStay_When_MinimizingWaste() {
+        // given
+        roomService.setAllocationPolicy(AllocationPolicy.MIN_WASTE);
+        roomService.bookRoom("1.2", LocalDate.of(2022, 9, 27), LocalDate.of(2022, 10, 1));
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 10, 1),
+                LocalDate.of(2022, 10, 3), 2, false);
+
+        // when
+        var roomId = roomService.claimRoom(bookingRequest);
+
+        // then
+        assertEquals("1.2", roomId);
+    }
+
+    @Test
+    void should_ReturnRoomToIndex_When_Unbooked() {
+        // given
+        roomService.bookRoom("2.1");
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 10, 1), 3, false);
+
+        // when
+        roomService.unbookRoom("2.1");
+
+        // then
+        assertEquals("2.1", roomService.findAvailableRoomId(bookingRequest));
+    }
+
+    @Test
+    void should_ThrowException_When_UnbookingFreeRoom() {
+        // when
+        Executable executable = () -> roomService.unbookRoom("2.1");
+
+        // then
+        assertThrows(BusinessException.class, executable);
+    }
+
+    @Test
+    void should_BookAndUnbookRoom_When_AddressedByHandle() {
+        // given
+        var handle = roomService.getRoomHandle("2.1");
+
+        // when
+        roomService.bookRoom(handle);
+
+        // then
+        assertFalse(roomService.isRoomAvailable("2.1", null, null));
+        assertThrows(BusinessException.class, () -> roomService.bookRoom(handle));
+        roomService.unbookRoom(handle);
+        assertTrue(roomService.isRoomAvailable("2.1", null, null));
+    }
+
+    @Test
+    void should_ReturnDistinctHandles_When_LookingUpRoomIds() {
+        // when
+        var handles = new HashSet<Integer>();
+        for (var roomId : List.of("1.1", "1.2", "1.3", "2.1", "2.2")) {
+            handles.add(roomService.getRoomHandle(roomId));
+        }
+
+        // then
+        assertEquals(5, handles.size());
+        assertThrows(BusinessException.class, () -> roomService.getRoomHandle("9.9"));
+    }
+
+    @Test
+    void should_ThrowException_When_HandleUnknown() {
+        // when
+        Executable executable = () -> roomService.bookRoom(roomService.getRoomCount());
+
+        // then
+        assertThrows(BusinessException.class, executable);
+    }
+
+    @Test
+    void should_ThrowException_When_RoomIdsDuplicated() {
+        // given
+        var rooms = List.of(new Room("1.1", 2), new Room("1.1", 3));
+
+        // when
+        Executable executable = () -> new RoomService(rooms);
+
+        // then
+        assertThrows(IllegalArgumentException.class, executable);
+    }
+
+    @Test
+    void should_NeverHandOutSameRoomTwice_When_ClaimingConcurrently() throws Exception {
+        // given
+        var rooms = new ArrayList<Room>();
+        for (int i = 0; i < 1000; i++) {
+            rooms.add(new Room("room-" + i, 2));
+        }
+        var roomService = new RoomService(rooms);
+        var bookingRequest = new BookingRequest("1", null, null, 2, false);
+        var claims = new ArrayList<Callable<String>>();
+        for (int i = 0; i < 1000; i++) {
+            claims.add(() -> roomService.claimRoom(bookingRequest));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when
+        List<Future<String>> results;
+        try {
+            results = executor.invokeAll(claims);
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        var roomIds = new HashSet<String>();
+        for (Future<String> result : results) {
+            roomIds.add(result.get());
+        }
+        assertEquals(1000, roomIds.size());
+        assertThrows(BusinessException.class, () -> roomService.claimRoom(bookingRequest));
+    }
+
+    @Test
+    void should_ThrowException_When_ClaimedStayOverlaps() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 10, 1), 5, false);
+        roomService.claimRoom(bookingRequest);
+
+        // when
+        Executable executable = () -> roomService.claimRoom(bookingRequest);
+
+        // then
+        assertThrows(BusinessException.class, executable);
+    }
+
+    @Test
+    void should_UpdateCounters_When_RoomsBookedAndClaimed() {
+        // given
+        var availableRooms = roomService.getAvailableRooms();
+
+        // when
+        roomService.bookRoom("1.3");
+        roomService.claimRoom(new BookingRequest("1", null, null, 2, false));
+
+        // then
+        assertAll(
+                () -> assertEquals(3, roomService.getAvailableRoomCount()),
+                () -> assertEquals(9, roomService.getAvailablePlaceCount()),
+                () -> assertEquals(1, roomService.getAvailableRoomCount(2)),
+                () -> assertEquals(0, roomService.getAvailableRoomCount(5)),
+                () -> assertEquals(5, availableRooms.size()),
+                () -> assertEquals(3, roomService.getAvailableRooms().size())
+        );
+    }
+
+    @Test
+    void should_CountPlacesPerNight_When_StaysBooked() {
+        // given
+        var night = LocalDate.of(2022, 9, 28);
+
+        // when
+        roomService.bookRoom("1.3", LocalDate.of(2022, 9, 27), LocalDate.of(2022, 10, 1));
+        roomService.claimRoom(new BookingRequest("1", night, night.plusDays(1), 2, false));
+
+        // then
+        assertAll(
+                () -> assertEquals(3, roomService.getAvailableRoomCount(night)),
+                () -> assertEquals(9, roomService.getAvailablePlaceCount(night)),
+                () -> assertEquals(1, roomService.getAvailableRoomCount(2, night)),
+                () -> assertEquals(4, roomService.getAvailableRoomCount(LocalDate.of(2022, 9, 29))),
+                () -> assertEquals(16, roomService.getAvailablePlaceCount(LocalDate.of(2022, 10, 1)))
+        );
+    }
+
+    @Test
+    void should_NotClaimOpenEnded_When_StayAhead() {
+        // given
+        var roomService = new RoomService(List.of(new Room("1.1", 2)));
+        var dateFrom = LocalDate.now().plusDays(30);
+        roomService.bookRoom("1.1", dateFrom, dateFrom.plusDays(4));
+
+        // when
+        var roomId = roomService.tryClaimRoom(new BookingRequest("1", null, null, 2, false));
+
+        // then
+        assertNull(roomId);
+        assertFalse(roomService.isRoomAvailable("1.1", null, null));
+        assertThrows(BusinessException.class, () -> roomService.bookRoom("1.1"));
+    }
+
+    @Test
+    void should_NotBookStay_When_RoomTakenOpenEnded() {
+        // given
+        var roomService = new RoomService(List.of(new Room("1.1", 2)));
+        var dateFrom = LocalDate.now().plusDays(30);
+        roomService.claimRoom(new BookingRequest("1", null, null, 2, false));
+
+        // when
+        var roomId = roomService.tryClaimRoom(new BookingRequest("2", dateFrom, dateFrom.plusDays(4), 2, false));
+
+        // then
+        assertNull(roomId);
+        assertThrows(BusinessException.class, () -> roomService.bookRoom("1.1", dateFrom, dateFrom.plusDays(4)));
+        roomService.unbookRoom("1.1");
+        assertEquals("1.1", roomService.tryClaimRoom(new BookingRequest("2", dateFrom, dateFrom.plusDays(4), 2, false)));
+    }
+
+    @Test
+    void should_AgreeOnAvailableRooms_When_StayTonight() {
+        // given
+        var tonight = LocalDate.now();
+
+        // when
+        roomService.bookRoom("1.3", tonight, tonight.plusDays(1));
+
+        // then
+        assertAll(
+                () -> assertEquals(4, roomService.getAvailableRoomCount()),
+                () -> assertEquals(11, roomService.getAvailablePlaceCount()),
+                () -> assertEquals(0, roomService.getAvailableRoomCount(5)),
+                () -> assertEquals(4, roomService.getAvailableRooms().size()),
+                () -> assertEquals(16, roomService.getAvailablePlaceCount(tonight.plusDays(1)))
+        );
+    }
+
+    @Test
+    void should_ReuseAvailableRooms_When_NothingChanged() {
+        // when
+        var first = roomService.getAvailableRooms();
+        var second = roomService.getAvailableRooms();
+
+        // then
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class, () -> first.add(new Room("3.1", 2)));
+    }
+
+    @Test
+    void should_SplitGroupOverFewestRooms_When_PartyExceedsLargestRoom() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 10, 1), 12, false);
+
+        // when
+        var roomIds = roomService.claimRooms(bookingRequest);
+
+        // then
+        assertEquals(Set.of("1.3", "2.2", "2.1"), new HashSet<>(roomIds));
+        assertFalse(roomService.isRoomAvailable("2.1", LocalDate.of(2022, 9, 27), LocalDate.of(2022, 9, 28)));
+    }
+
+    @Test
+    void should_PreferLessWastedBeds_When_RoomCountTies() {
+        // given
+        var bookingRequest = new BookingRequest("1", null, null, 6, false);
+
+        // when
+        var roomIds = roomService.claimRooms(bookingRequest);
+
+        // then
+        assertEquals(2, roomIds.size());
+        assertTrue(roomIds.contains("2.2"));
+        assertEquals(10, roomService.getAvailablePlaceCount());
+    }
+
+    @Test
+    void should_ClaimNothing_When_PartyEmpty() {
+        // given
+        var bookingRequest = new BookingRequest("1", null, null, 0, false);
+
+        // when
+        Executable executable = () -> roomService.claimRooms(bookingRequest);
+
+        // then
+        assertThrows(BusinessException.class, executable);
+        assertEquals(5, roomService.getAvailableRoomCount());
+    }
+
+    @Test
+    void should_ClaimNothing_When_GroupDoesNotFit() {
+        // given
+        roomService.bookRoom("1.3");
+        var bookingRequest = new BookingRequest("1", null, null, 12, false);
+
+        // when
+        Executable executable = () -> roomService.claimRooms(bookingRequest);
+
+        // then
+        assertThrows(BusinessException.class, executable);
+        assertEquals(4, roomService.getAvailableRoomCount());
+    }
+
+    @Test
+    void should_SplitParty_When_ThousandsOfRoomsFree() {
+        // given
+        var rooms = new ArrayList<Room>();
+        for (int i = 0; i < 5000; i++) {
+            rooms.add(new Room("room-" + i, 1 + i % 40));
+        }
+        var roomService = new RoomService(rooms);
+        var bookingRequest = new BookingRequest("1", null, null, 997, false);
+
+        // when
+        var roomIds = roomService.tryClaimRooms(bookingRequest, 2_000_000);
+
+        // then
+        assertNotNull(roomIds);
+        assertEquals(5000 - roomIds.size(), roomService.getAvailableRoomCount());
+    }
+
+    @Test
+    void should_ReleaseHeldRoom_When_HoldExpires() {
+        // given
+        var now = new AtomicLong();
+        roomService.setHoldTimer(new TimingWheel(100, 512, now::get));
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 10, 1), 5, false);
+        var hold = roomService.holdRoom(bookingRequest, 15 * 60_000);
+
+        // when
+        now.addAndGet(15 * 60_000);
+        roomService.getHoldTimer().advance();
+
+        // then
+        assertTrue(hold.isExpired());
+        assertTrue(roomService.isRoomAvailable("1.3", LocalDate.of(2022, 9, 27), LocalDate.of(2022, 10, 1)));
+        assertThrows(BusinessException.class, () -> roomService.confirm(hold));
+    }
+
+    @Test
+    void should_KeepRoom_When_HoldConfirmedBeforeExpiry() {
+        // given
+        var now = new AtomicLong();
+        roomService.setHoldTimer(new TimingWheel(100, 512, now::get));
+        var bookingRequest = new BookingRequest("1", null, null, 5, false);
+        var hold = roomService.holdRoom(bookingRequest, 60_000);
+
+        // when
+        roomService.confirm(hold);
+        now.addAndGet(120_000);
+        roomService.getHoldTimer().advance();
+
+        // then
+        assertTrue(hold.isConfirmed());
+        assertEquals(0, roomService.getAvailableRoomCount(5));
+        assertEquals(0, roomService.getHoldTimer().size());
+    }
+
+    @Test
+    void should_StopHoldTimer_When_Closed() {
+        // given
+        var bookingRequest = new BookingRequest("1", null, null, 2, false);
+        roomService.holdRoom(bookingRequest, 60_000);
+        var timer = roomService.getHoldTimer();
+
+        // when
+        roomService.close();
+
+        // then
+        assertNotSame(timer, roomService.getHoldTimer());
+        roomService.close();
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import com.parmeet.unittest.hotelbookingapp.exception.BusinessException;
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import com.parmeet.unittest.hotelbookingapp.model.Room;
+import com.parmeet.unittest.hotelbookingapp.util.TimingWheel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedRoomServiceTest {
+
+    private final ShardedRoomService roomService = new ShardedRoomService(Arrays.asList(
+            new Room("1.1", 2),
+            new Room("1.2", 2),
+            new Room("1.3", 5),
+            new Room("2.1", 3),
+            new Room("2.2", 4)));
+
+    @AfterEach
+    void close() {
+        roomService.close();
+    }
+
+    @Test
+    void should_ShardRoomsByFloor() {
+        // then
+        assertEquals(2, roomService.getShardCount());
+        assertEquals(5, roomService.getRoomCount());
+        assertEquals(16, roomService.getAvailablePlaceCount());
+    }
+
+    @Test
+    void should_FallBackToOtherShard_When_PreferredShardFull() {
+        // given
+        roomService.setAllocationPolicy(AllocationPolicy.EXACT_MATCH);
+        var bookingRequest = new BookingRequest("1", null, null, 3, false);
+
+        // when
+        var first = roomService.tryClaimRoom(bookingRequest);
+        var second = roomService.tryClaimRoom(bookingRequest);
+
+        // then
+        assertEquals("2.1", first);
+        assertNull(second);
+        assertEquals(0, roomService.getAvailableRoomCount(3));
+    }
+
+    @Test
+    void should_RouteBookingsByRoomId() {
+        // given
+        roomService.bookRoom("2.2");
+        roomService.bookRoom("1.1", LocalDate.of(2022, 9, 27), LocalDate.of(2022, 10, 1));
+
+        // when
+        Executable executable = () -> roomService.bookRoom(roomService.getRoomHandle("2.2"));
+
+        // then
+        assertThrows(BusinessException.class, executable);
+        assertFalse(roomService.isRoomAvailable("1.1", LocalDate.of(2022, 9, 28), LocalDate.of(2022, 9, 29)));
+        assertEquals(4, roomService.getAvailableRooms().size());
+    }
+
+    @Test
+    void should_CountPlacesPerNight_When_StaysBookedOnEveryShard() {
+        // given
+        var night = LocalDate.of(2022, 9, 28);
+
+        // when
+        roomService.bookRoom("1.3", LocalDate.of(2022, 9, 27), LocalDate.of(2022, 10, 1));
+        roomService.bookRoom("2.1", night, night.plusDays(1));
+
+        // then
+        assertEquals(16 - 5 - 3, roomService.getAvailablePlaceCount(night));
+        assertEquals(16 - 5, roomService.getAvailablePlaceCount(night.plusDays(1)));
+    }
+
+    @Test
+    void should_ClaimEveryRoomOnce_When_ClaimingAsync() {
+        // given
+        roomService.setAllocationPolicy(AllocationPolicy.EXACT_MATCH);
+        var bookingRequest = new BookingRequest("1", null, null, 2, false);
+
+        // when
+        var first = roomService.tryClaimRoomAsync(bookingRequest).join();
+        var second = roomService.tryClaimRoomAsync(bookingRequest).join();
+        var third = roomService.tryClaimRoomAsync(bookingRequest).join();
+
+        // then
+        assertEquals(Set.of("1.1", "1.2"), Set.of(first, second));
+        assertNull(third);
+    }
+
+    @Test
+    void should_SplitGroupOverShards_When_NoShardFitsIt() {
+        // given
+        var bookingRequest = new BookingRequest("1", LocalDate.of(2022, 9, 27),
+                LocalDate.of(2022, 10, 1), 14, false);
+
+        // when
+        var roomIds = roomService.claimRooms(bookingRequest);
+
+        // then
+        assertTrue(roomIds.stream().mapToInt(roomService::getRoomCapacity).sum() >= 14);
+        assertTrue(roomIds.stream().anyMatch(roomId -> roomId.startsWith("1.")));
+        assertTrue(roomIds.stream().anyMatch(roomId -> roomId.startsWith("2.")));
+        assertEquals(5, roomService.getRoomCapacity(roomIds.get(0)));
+    }
+
+    @Test
+    void should_ReleaseEveryShard_When_GroupDoesNotFit() {
+        // given
+        var bookingRequest = new BookingRequest("1", null, null, 17, false);
+
+        // when
+        var roomIds = roomService.tryClaimRooms(bookingRequest, 1_000_000);
+
+        // then
+        assertNull(roomIds);
+        assertEquals(5, roomService.getAvailableRoomCount());
+        assertEquals(16, roomService.getAvailablePlaceCount());
+    }
+
+    @Test
+    void should_CountTonightOverEveryShard() {
+        // given
+        roomService.bookRoom("1.3");
+        roomService.bookRoom("2.1");
+
+        // then
+        assertEquals(3, roomService.getAvailableRoomCount());
+        assertEquals(16 - 5 - 3, roomService.getAvailablePlaceCount());
+        assertEquals(2, roomService.getAvailableRoomCount(2));
+    }
+
+    @Test
+    void should_ReleaseHeldRoom_When_HoldExpiresOnShardedRooms() {
+        // given
+        var now = new AtomicLong();
+        roomService.setHoldTimer(new TimingWheel(100, 512, now::get));
+        var bookingRequest = new BookingRequest("1", null, null, 5, false);
+        var hold = roomService.holdRoom(bookingRequest, 60_000);
+
+        // when
+        now.addAndGet(60_000);
+        roomService.getHoldTimer().advance();
+
+        // then
+        assertTrue(hold.isExpired());
+        assertEquals(1, roomService.getAvailableRoomCount(5));
+    }
+
+}
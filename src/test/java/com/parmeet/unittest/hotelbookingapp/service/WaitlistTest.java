@@ -0,0 +1,227 @@
+package com.parmeet.unittest.hotelbookingapp.service;
+
+import com.parmeet.unittest.hotelbookingapp.dao.BookingDAO;
+import com.parmeet.unittest.hotelbookingapp.exception.BusinessException;
+import com.parmeet.unittest.hotelbookingapp.external.MailSender;
+import com.parmeet.unittest.hotelbookingapp.model.BookingRequest;
+import com.parmeet.unittest.hotelbookingapp.model.BookingResult;
+import com.parmeet.unittest.hotelbookingapp.model.Room;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaitlistTest {
+
+    private static final LocalDate MONDAY = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    private final Waitlist waitlist = new Waitlist();
+
+    private BookingService bookingService(RoomService roomService) {
+        var bookingService = new BookingService(new PaymentService(), roomService, new BookingDAO(),
+                new MailSender() {
+                    @Override
+                    public void sendBookingConfirmation(String bookingId) {
+                    }
+                });
+        bookingService.setWaitlist(waitlist);
+        return bookingService;
+    }
+
+    private static BookingRequest request(String userId, int fromDay, int toDay, int guestCount) {
+        return new BookingRequest(userId, MONDAY.plusDays(fromDay), MONDAY.plusDays(toDay), guestCount, false);
+    }
+
+    @Test
+    void should_PickLargestFittingPartyWithinFreedNights() {
+        // given
+        waitlist.add(request("too-big", 0, 2, 5));
+        waitlist.add(request("too-long", 0, 5, 4));
+        waitlist.add(request("small", 1, 2, 2));
+        waitlist.add(request("first", 0, 3, 4));
+        waitlist.add(request("second", 1, 3, 4));
+
+        // when
+        var entry = waitlist.poll(4, MONDAY, MONDAY.plusDays(3));
+
+        // then
+        assertEquals("first", entry.getBookingRequest().getUserId());
+        assertEquals(4, waitlist.size());
+    }
+
+    @Test
+    void should_ServeHigherPriorityFirst() {
+        // given
+        waitlist.add(new BookingRequest("regular", null, null, 2, false));
+        waitlist.add(new BookingRequest("loyal", null, null, 2, false), 10);
+
+        // when
+        var entry = waitlist.poll(2, null, null);
+
+        // then
+        assertEquals("loyal", entry.getBookingRequest().getUserId());
+        assertNull(waitlist.poll(1, null, null));
+    }
+
+    @Test
+    void should_KeepOneEntry_When_RequestAddedAgain() {
+        // given
+        var first = waitlist.add(request("1", 0, 2, 2));
+
+        // when
+        var second = waitlist.add(request("1", 0, 2, 2));
+
+        // then
+        assertSame(first, second);
+        assertEquals(1, waitlist.size());
+    }
+
+    @Test
+    void should_WaitAgain_When_EarlierEntryCompleted() {
+        // given
+        var first = waitlist.add(request("1", 0, 2, 2));
+        var entry = waitlist.poll(2, MONDAY, MONDAY.plusDays(2));
+        entry.getResult().complete(BookingResult.paymentRejected(entry.getBookingRequest(), "small-payments-only"));
+
+        // when
+        var second = waitlist.add(request("1", 0, 2, 2));
+
+        // then
+        assertNotSame(first, second);
+        assertEquals(1, waitlist.size());
+    }
+
+    @Test
+    void should_BookWaitingRequest_When_BookingCancelled() {
+        // given
+        var roomService = new RoomService(List.of(new Room("1.1", 2)));
+        var bookingService = bookingService(roomService);
+        var bookingId = bookingService.makeBooking(request("1", 0, 4, 2));
+        var waiting = request("2", 1, 3, 2);
+        assertInstanceOf(BookingResult.NoRoom.class, bookingService.tryMakeBooking(waiting));
+
+        // when
+        bookingService.cancelBooking(bookingId);
+
+        // then
+        assertEquals(0, waitlist.size());
+        assertEquals("1.1", waiting.getRoomId());
+        assertFalse(roomService.isRoomAvailable("1.1", MONDAY.plusDays(1), MONDAY.plusDays(2)));
+    }
+
+    @Test
+    void should_ReturnWaitlistEntry_When_RetriedWithoutRoom() {
+        // given
+        var bookingService = bookingService(new RoomService(List.of(new Room("1.1", 2))));
+        var bookingId = bookingService.makeBooking(request("1", 0, 4, 2));
+        var first = bookingService.tryMakeBooking(request("2", 1, 3, 2));
+
+        // when
+        var second = bookingService.tryMakeBooking(request("2", 1, 3, 2));
+
+        // then
+        assertEquals(1, waitlist.size());
+        var waitlisted = ((BookingResult.NoRoom) second).getWaitlisted();
+        assertSame(((BookingResult.NoRoom) first).getWaitlisted(), waitlisted);
+        bookingService.cancelBooking(bookingId);
+        assertTrue(waitlisted.join().isSuccess());
+    }
+
+    @Test
+    void should_BookFromWaitlistOnExecutor_When_BookingCancelled() {
+        // given
+        var bookingService = bookingService(new RoomService(List.of(new Room("1.1", 2))));
+        var tasks = new ArrayList<Runnable>();
+        bookingService.setWaitlistExecutor(tasks::add);
+        var bookingId = bookingService.makeBooking(request("1", 0, 4, 2));
+        var waitlisted = ((BookingResult.NoRoom) bookingService.tryMakeBooking(request("2", 1, 3, 2))).getWaitlisted();
+
+        // when
+        bookingService.cancelBooking(bookingId);
+
+        // then
+        assertFalse(waitlisted.isDone());
+        tasks.forEach(Runnable::run);
+        assertTrue(waitlisted.join().isSuccess());
+    }
+
+    @Test
+    void should_MatchEveryFreedRoom_When_ManyRequestsWaiting() {
+        // given
+        for (int i = 0; i < 100_000; i++) {
+            int fromDay = i % 365;
+            waitlist.add(request("user-" + i, fromDay, fromDay + 1 + i % 7, 1 + i % 5));
+        }
+
+        // when
+        int matched = 0;
+        for (int i = 0; i < 1_000; i++) {
+            int fromDay = i % 358;
+            if (waitlist.poll(4, MONDAY.plusDays(fromDay), MONDAY.plusDays(fromDay + 7)) != null) {
+                matched++;
+            }
+        }
+
+        // then
+        assertEquals(1_000, matched);
+        assertEquals(99_000, waitlist.size());
+    }
+
+    @Test
+    void should_NotWaitlist_When_MakeBookingThrows() {
+        // given
+        var bookingService = bookingService(new RoomService(List.of(new Room("1.1", 2))));
+        bookingService.makeBooking(request("1", 0, 4, 2));
+
+        // when
+        assertThrows(BusinessException.class, () -> bookingService.makeBooking(request("2", 1, 3, 2)));
+
+        // then
+        assertEquals(0, waitlist.size());
+    }
+
+    @Test
+    void should_BookFreedRoom_When_OtherRoomFreedToo() {
+        // given
+        var roomService = new RoomService(List.of(new Room("1.1", 2), new Room("1.2", 2)));
+        var bookingService = bookingService(roomService);
+        var tasks = new ArrayList<Runnable>();
+        bookingService.setWaitlistExecutor(tasks::add);
+        var first = bookingService.makeBooking(request("1", 0, 4, 2));
+        var second = bookingService.makeBooking(request("2", 0, 4, 2));
+        var waiting = request("3", 1, 3, 2);
+        bookingService.tryMakeBooking(waiting);
+
+        // when
+        bookingService.cancelBooking(second);
+        bookingService.cancelBooking(first);
+        tasks.forEach(Runnable::run);
+
+        // then
+        assertEquals("1.2", waiting.getRoomId());
+        assertTrue(roomService.isRoomAvailable("1.1", MONDAY, MONDAY.plusDays(4)));
+    }
+
+    @Test
+    void should_ExpireWaitingRequest_When_StayHasBegun() {
+        // given
+        var past = new BookingRequest("1", LocalDate.now().minusDays(2), LocalDate.now().plusDays(1), 2, false);
+        var pastResult = waitlist.add(past);
+        var future = waitlist.add(request("2", 0, 2, 2));
+
+        // when
+        int expired = waitlist.expireBefore(LocalDate.now());
+
+        // then
+        assertEquals(1, expired);
+        assertEquals(1, waitlist.size());
+        assertInstanceOf(BookingResult.NoRoom.class, pastResult.join());
+        assertFalse(future.isDone());
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.parmeet.unittest.hotelbookingapp.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyConverterTest {
+
+    @TempDir
+    Path directory;
+
+    private final ExchangeRates defaultRates = CurrencyConverter.getRates();
+
+    @AfterEach
+    void restoreRates() {
+        CurrencyConverter.setRates(defaultRates);
+    }
+
+    @Test
+    void should_ConvertUsingCrossRates_When_RatesLoadedFromFile() throws IOException {
+        // given
+        Path file = directory.resolve("rates.properties");
+        Files.writeString(file, "EUR=0.8\nGBP=0.5\n");
+
+        // when
+        CurrencyConverter.loadRates(file);
+
+        // then
+        assertAll(
+                () -> assertEquals(80.0, CurrencyConverter.convert(100.0, Currency.USD, Currency.EUR), 1e-9),
+                () -> assertEquals(62.5, CurrencyConverter.convert(100.0, Currency.EUR, Currency.GBP), 1e-9),
+                () -> assertEquals(160.0, CurrencyConverter.toEuro(200.0), 1e-9)
+        );
+    }
+
+    @Test
+    void should_ConvertEveryAmount_When_BulkConverting() {
+        // given
+        double[] amounts = {10.0, 20.0, 100.0};
+        double[] result = new double[amounts.length];
+
+        // when
+        CurrencyConverter.convertAll(amounts, Currency.USD, Currency.EUR, result);
+
+        // then
+        assertArrayEquals(new double[]{8.5, 17.0, 85.0}, result, 1e-9);
+    }
+
+    @Test
+    void should_ThrowException_When_RateMissing() {
+        // when
+        Executable executable = () -> CurrencyConverter.convert(1.0, Currency.USD, Currency.JPY);
+
+        // then
+        assertThrows(IllegalArgumentException.class, executable);
+    }
+
+    @Test
+    void should_KeepAmount_When_CurrencyHasNoRate() {
+        // when
+        var amount = CurrencyConverter.convert(1.0, Currency.JPY, Currency.JPY);
+
+        // then
+        assertEquals(1.0, amount);
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.parmeet.unittest.hotelbookingapp.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void should_SumExactly_When_AddingManyCents() {
+        // given
+        long[] amountsMinor = new long[1_000_000];
+        Arrays.fill(amountsMinor, Money.toMinorUnits(0.1, Currency.USD));
+
+        // when
+        long total = Money.sum(amountsMinor);
+
+        // then
+        assertEquals(Money.of(100_000.0, Currency.USD), Money.ofMinor(total, Currency.USD));
+    }
+
+    @Test
+    void should_ThrowException_When_CurrenciesDiffer() {
+        // given
+        var dollars = Money.of(10.0, Currency.USD);
+        var euros = Money.of(10.0, Currency.EUR);
+
+        // when
+        Executable executable = () -> dollars.plus(euros);
+
+        // then
+        assertThrows(IllegalArgumentException.class, executable);
+    }
+
+    @Test
+    void should_RoundToTargetMinorUnits_When_Converting() {
+        // given
+        var rates = new EnumMap<Currency, Double>(Currency.class);
+        rates.put(Currency.JPY, 150.0);
+        var defaultRates = CurrencyConverter.getRates();
+        CurrencyConverter.setRates(ExchangeRates.of(rates));
+
+        // when
+        Money yen;
+        try {
+            yen = CurrencyConverter.convert(Money.of(12.34, Currency.USD), Currency.JPY);
+        } finally {
+            CurrencyConverter.setRates(defaultRates);
+        }
+
+        // then
+        assertEquals(Money.ofMinor(1851, Currency.JPY), yen);
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.parmeet.unittest.hotelbookingapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final TimingWheel timingWheel = new TimingWheel(10, 8, now::get);
+
+    @Test
+    void should_FireInDeadlineOrder_When_TimeoutsSpanSeveralLevels() {
+        // given
+        List<Long> fired = new ArrayList<>();
+        for (long delay : new long[]{50_000, 30, 700, 5_000}) {
+            timingWheel.schedule(() -> fired.add(now.get()), delay);
+        }
+
+        // when
+        for (int step = 0; step < 6_000; step++) {
+            now.addAndGet(10);
+            timingWheel.advance();
+        }
+
+        // then
+        assertEquals(List.of(30L, 700L, 5_000L, 50_000L), fired);
+        assertEquals(0, timingWheel.size());
+    }
+
+    @Test
+    void should_NotFire_When_Cancelled() {
+        // given
+        List<String> fired = new ArrayList<>();
+        var timeout = timingWheel.schedule(() -> fired.add("cancelled"), 100);
+        timingWheel.schedule(() -> fired.add("kept"), 100);
+
+        // when
+        var cancelled = timeout.cancel();
+        now.addAndGet(1_000);
+        timingWheel.advance();
+
+        // then
+        assertTrue(cancelled);
+        assertFalse(timeout.cancel());
+        assertEquals(List.of("kept"), fired);
+    }
+
+}